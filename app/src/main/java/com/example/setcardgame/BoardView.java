@@ -0,0 +1,338 @@
+package com.example.setcardgame;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import androidx.annotation.Nullable;
+
+/**
+ * The game board: one {@link SetCardView} per slot, laid out in a fixed grid.
+ *
+ * A board never holds more than {@link SetRules#MAX_BOARD_SIZE} cards, so all
+ * the card views are created up front (see {@link MainActivity}, which builds
+ * the board while the menu is showing) and each view stays in its slot. Nothing
+ * is inflated, recycled or scrolled during play and every slot is always on
+ * screen; slots past the end of the board are just made invisible, which
+ * needs no new layout pass. The grid is sized for a full board, so the cards
+ * keep one size for the whole game.
+ */
+public class BoardView extends ViewGroup implements BoardDiff.Callback, CardFaceRenderer.Listener,
+        CardAtlas.Listener {
+
+    public interface OnCardClickListener {
+        void onCardClick(int position);
+    }
+
+    // Width to height, as in SetCardView
+    private static final float ASPECT_RATIO = 2f / 3f;
+    // Column counts tried when fitting a full board into the view
+    private static final int MIN_COLUMNS = 3;
+    private static final int MAX_COLUMNS = 7;
+
+    // How long the valid/invalid highlight stays on the processed slots
+    private static final long FEEDBACK_DURATION_MILLIS = 600;
+
+    private final SetCardView[] slots = new SetCardView[SetRules.MAX_BOARD_SIZE];
+    // Slots whose card changed during BoardDiff.dispatch, and slots whose selection changed
+    private final boolean[] cardChanged = new boolean[SetRules.MAX_BOARD_SIZE];
+    private final boolean[] selectionChanged = new boolean[SetRules.MAX_BOARD_SIZE];
+
+    private CardPainter painter;
+    private CardFaceRenderer faceRenderer;
+    // When set, cards are drawn from the atlas and the face renderer is not used
+    private CardAtlas atlas;
+    private OnCardClickListener listener;
+    private GameState state;
+
+    // Grid geometry, set in onMeasure
+    private int columns = 4;
+    private int cellWidth;
+    private int cellHeight;
+    private int gridLeft;
+
+    public BoardView(Context context) {
+        this(context, null);
+    }
+
+    public BoardView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        LayoutInflater inflater = LayoutInflater.from(context);
+        for (int slot = 0; slot < slots.length; slot++) {
+            SetCardView cardView = (SetCardView) inflater.inflate(R.layout.item_card, this, false);
+            int position = slot;
+            cardView.setOnClickListener(v -> {
+                if (listener != null) {
+                    listener.onCardClick(position);
+                }
+            });
+            cardView.setVisibility(INVISIBLE);
+            slots[slot] = cardView;
+            addView(cardView);
+        }
+    }
+
+    /**
+     * Connects the board to the drawing helpers of a game screen; {@link #release()} undoes it.
+     * Cards come from the atlas if there is one, and otherwise from the face renderer.
+     */
+    public void bind(CardPainter painter, @Nullable CardFaceRenderer faceRenderer, @Nullable CardAtlas atlas,
+                     OnCardClickListener listener) {
+        this.painter = painter;
+        this.faceRenderer = faceRenderer;
+        this.atlas = atlas;
+        this.listener = listener;
+        if (faceRenderer != null) {
+            faceRenderer.setListener(this);
+        }
+        if (atlas != null && isAttachedToWindow()) {
+            atlas.addListener(this);
+        }
+        for (SetCardView cardView : slots) {
+            cardView.setPainter(painter);
+            cardView.setAtlas(atlas);
+        }
+        updateCardSize();
+    }
+
+    /**
+     * Disconnects the board from its game screen, so it can be shown by the next one
+     */
+    public void release() {
+        if (atlas != null) {
+            atlas.removeListener(this);
+        }
+        atlas = null;
+        faceRenderer = null;
+        listener = null;
+        state = null;
+        for (SetCardView cardView : slots) {
+            cardView.cancelFeedback();
+            cardView.setAtlas(null);
+            cardView.setVisibility(INVISIBLE);
+        }
+    }
+
+    // The atlas outlives the board, so it only holds on to the board while it is on screen
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (atlas != null) {
+            atlas.addListener(this);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (atlas != null) {
+            atlas.removeListener(this);
+        }
+    }
+
+    /**
+     * Returns the view of the given board slot
+     */
+    public SetCardView getSlotView(int position) {
+        return slots[position];
+    }
+
+    /**
+     * Shows the given game state, updating only the slots that changed since the last one
+     */
+    public void setState(GameState newState) {
+        GameState oldState = state;
+        state = newState;
+        if (oldState == null) {
+            for (int slot = 0; slot < slots.length; slot++) {
+                bindSlot(slot);
+            }
+            return;
+        }
+
+        BoardDiff.dispatch(oldState, newState, this);
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (cardChanged[slot]) {
+                bindSlot(slot);
+            } else if (selectionChanged[slot]) {
+                slots[slot].setSelected(newState.isSelected(slot));
+            }
+            cardChanged[slot] = false;
+            selectionChanged[slot] = false;
+        }
+    }
+
+    // The slots never move, so inserts, removals and moves change the cards of every slot they shift
+
+    @Override
+    public void onInserted(int position) {
+        markChanged(position, slots.length - 1);
+    }
+
+    @Override
+    public void onRemoved(int position) {
+        markChanged(position, slots.length - 1);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        markChanged(Math.min(fromPosition, toPosition), Math.max(fromPosition, toPosition));
+    }
+
+    @Override
+    public void onCardChanged(int position) {
+        markChanged(position, position);
+    }
+
+    @Override
+    public void onSelectionChanged(int position) {
+        if (position < slots.length) {
+            selectionChanged[position] = true;
+        }
+    }
+
+    private void markChanged(int from, int to) {
+        for (int slot = from; slot <= to && slot < slots.length; slot++) {
+            cardChanged[slot] = true;
+        }
+    }
+
+    private void bindSlot(int slot) {
+        SetCardView cardView = slots[slot];
+        if (state == null || slot >= state.getBoardSize()) {
+            cardView.cancelFeedback();
+            cardView.setVisibility(INVISIBLE);
+            return;
+        }
+        Card card = state.cardAt(slot);
+        cardView.setCard(card, getFace(card));
+        cardView.setSelected(state.isSelected(slot));
+        cardView.setVisibility(VISIBLE);
+    }
+
+    /**
+     * Plays the valid/invalid highlight on the given slots, fading the processed cards out
+     * over whatever is in the slots now. It plays by itself, and the slots can be selected
+     * again meanwhile.
+     */
+    public void showSelectionFeedback(int[] slotIndexes, int[] cardIds, boolean validSet) {
+        for (int i = 0; i < slotIndexes.length; i++) {
+            int slot = slotIndexes[i];
+            if (slot < slots.length && slots[slot].getVisibility() == VISIBLE) {
+                Card outgoing = Card.of(cardIds[i]);
+                slots[slot].playFeedback(outgoing, getFace(outgoing), validSet, FEEDBACK_DURATION_MILLIS);
+            }
+        }
+    }
+
+    private Bitmap getFace(Card card) {
+        // The atlas replaces the separate face bitmaps; until it is ready the view draws the shapes
+        return atlas != null || faceRenderer == null ? null : faceRenderer.getFace(card);
+    }
+
+    @Override
+    public void onFaceReady(int cardId) {
+        if (state == null) {
+            return;
+        }
+        for (int slot = 0; slot < state.getBoardSize() && slot < slots.length; slot++) {
+            if (state.idAt(slot) == cardId) {
+                bindSlot(slot);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onAtlasReady() {
+        for (SetCardView cardView : slots) {
+            cardView.invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        int availableWidth = width - getPaddingLeft() - getPaddingRight();
+        int availableHeight = height - getPaddingTop() - getPaddingBottom();
+
+        // Largest cards that fit a full board, trying each column count
+        cellWidth = 0;
+        for (int candidate = MIN_COLUMNS; candidate <= MAX_COLUMNS; candidate++) {
+            int rows = (slots.length + candidate - 1) / candidate;
+            int fit = availableWidth / candidate;
+            if (MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.UNSPECIFIED) {
+                fit = Math.min(fit, (int) (availableHeight / rows * ASPECT_RATIO));
+            }
+            if (fit > cellWidth) {
+                cellWidth = fit;
+                columns = candidate;
+            }
+        }
+        cellHeight = Math.round(cellWidth / ASPECT_RATIO);
+        gridLeft = getPaddingLeft() + (availableWidth - columns * cellWidth) / 2;
+
+        for (SetCardView cardView : slots) {
+            MarginLayoutParams params = (MarginLayoutParams) cardView.getLayoutParams();
+            cardView.measure(
+                    MeasureSpec.makeMeasureSpec(Math.max(0, cellWidth - params.leftMargin - params.rightMargin),
+                            MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(Math.max(0, cellHeight - params.topMargin - params.bottomMargin),
+                            MeasureSpec.EXACTLY));
+        }
+
+        int rows = (slots.length + columns - 1) / columns;
+        setMeasuredDimension(width, resolveSize(rows * cellHeight + getPaddingTop() + getPaddingBottom(),
+                heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        for (int slot = 0; slot < slots.length; slot++) {
+            SetCardView cardView = slots[slot];
+            MarginLayoutParams params = (MarginLayoutParams) cardView.getLayoutParams();
+            int cellLeft = gridLeft + (slot % columns) * cellWidth + params.leftMargin;
+            int cellTop = getPaddingTop() + (slot / columns) * cellHeight + params.topMargin;
+            cardView.layout(cellLeft, cellTop,
+                    cellLeft + cardView.getMeasuredWidth(), cellTop + cardView.getMeasuredHeight());
+        }
+        updateCardSize();
+    }
+
+    private void updateCardSize() {
+        // Every card has the same size, so the first one sets it for all
+        SetCardView cardView = slots[0];
+        if (cardView.getWidth() == 0 || painter == null) {
+            return;
+        }
+        if (atlas != null) {
+            atlas.setCardSize(cardView.getWidth(), cardView.getHeight());
+        } else if (faceRenderer != null) {
+            faceRenderer.setFaceSize(cardView.getFaceWidth(), cardView.getFaceHeight());
+        }
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new MarginLayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new MarginLayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected LayoutParams generateLayoutParams(LayoutParams params) {
+        return new MarginLayoutParams(params);
+    }
+
+    @Override
+    protected boolean checkLayoutParams(LayoutParams params) {
+        return params instanceof MarginLayoutParams;
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.setcardgame;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * All 81 cards and the selected/valid/invalid frames drawn side by side into one bitmap.
+ *
+ * Each cell is a whole card view: a card with its shapes, or one of the
+ * selected, valid and invalid frames, all drawn by {@link CardPainter} exactly
+ * as {@link SetCardView} draws them without an atlas. A card on the board then
+ * draws its cell of the atlas, so every board and replay on screen shares a
+ * single texture. The atlas is generated in the background the first time a
+ * card size is seen and saved as a PNG in the app's files, one per screen
+ * orientation, so rotating the screen finds the other one on disk; later
+ * launches just decode it. One atlas is shared by the whole app.
+ *
+ * The atlas is an ARGB_8888 bitmap of 12 x 7 cells at screen resolution, so
+ * it costs 336 bytes per pixel of a card: about 24 MB for the cards of a
+ * phone. It is kept to {@link #MAX_BITMAP_BYTES} and {@link #MAX_BITMAP_SIZE}
+ * pixels a side, which hardware canvases can upload as one texture. Cards too
+ * large for that, e.g. on tablets in landscape, get no atlas and are drawn by
+ * {@link CardPainter} instead.
+ */
+public class CardAtlas {
+    private static final String TAG = "CardAtlas";
+
+    /**
+     * Notified on the main thread when an atlas for the current card size is ready
+     */
+    public interface Listener {
+        void onAtlasReady();
+    }
+
+    // 12 x 7 = 84 cells: the 81 cards, then the three frames
+    private static final int COLUMNS = 12;
+    private static final int ROWS = 7;
+    private static final int FRAME_COUNT = 3;
+    // Memory budget of the atlas, and its largest side (the texture size of most GPUs)
+    private static final long MAX_BITMAP_BYTES = 32L * 1024 * 1024;
+    private static final int MAX_BITMAP_SIZE = 4096;
+    // Files are named card_atlas_v<version>_<orientation>_<width>x<height>.png
+    private static final String FILE_BASE = "card_atlas_";
+    // Bump when the drawing changes so old atlases on disk are not used
+    private static final String FILE_PREFIX = FILE_BASE + "v2_";
+    private static final String FILE_SUFFIX = ".png";
+
+    private static CardAtlas instance;
+
+    /**
+     * An atlas bitmap and the size of its cells; replaced as a whole
+     */
+    private static final class Sheet {
+        final Bitmap bitmap;
+        final int cellWidth;
+        final int cellHeight;
+
+        Sheet(Bitmap bitmap, int cellWidth, int cellHeight) {
+            this.bitmap = bitmap;
+            this.cellWidth = cellWidth;
+            this.cellHeight = cellHeight;
+        }
+    }
+
+    private final Context applicationContext;
+    private final CardPainter painter;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CardAtlas");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private volatile Sheet sheet;
+    private boolean preloadStarted;
+    // Card size last asked for, on the main thread
+    private int cardWidth;
+    private int cardHeight;
+
+    private CardAtlas(Context context) {
+        applicationContext = context.getApplicationContext();
+        painter = new CardPainter(applicationContext);
+    }
+
+    public static synchronized CardAtlas getInstance(Context context) {
+        if (instance == null) {
+            instance = new CardAtlas(context);
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts decoding the atlas saved for the current orientation by an earlier launch,
+     * so it is ready before the board is laid out
+     */
+    public void preload() {
+        if (preloadStarted || sheet != null || cardWidth > 0) {
+            return;
+        }
+        preloadStarted = true;
+        String prefix = orientationPrefix();
+        executor.execute(() -> {
+            File[] files = applicationContext.getFilesDir().listFiles(
+                    (dir, name) -> name.startsWith(prefix) && name.endsWith(FILE_SUFFIX));
+            if (files != null && files.length > 0) {
+                int[] size = parseCellSize(files[0].getName(), prefix);
+                if (size != null) {
+                    Sheet loaded = load(files[0], size[0], size[1]);
+                    if (loaded != null) {
+                        publish(loaded, 0, 0);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Makes sure there is an atlas for cards of the given size, loading or generating it if needed,
+     * unless it would be over budget
+     */
+    public void setCardSize(int width, int height) {
+        if (width <= 0 || height <= 0 || (width == cardWidth && height == cardHeight)) {
+            return;
+        }
+        cardWidth = width;
+        cardHeight = height;
+        if (getBitmap(width, height) != null || !fitsBudget(width, height)) {
+            return;
+        }
+        String prefix = orientationPrefix();
+        executor.execute(() -> {
+            Sheet current = sheet;
+            if (current != null && current.cellWidth == width && current.cellHeight == height) {
+                return; // Loaded meanwhile
+            }
+            File file = new File(applicationContext.getFilesDir(), prefix + width + "x" + height + FILE_SUFFIX);
+            Sheet result = file.exists() ? load(file, width, height) : null;
+            if (result == null) {
+                result = generate(width, height);
+                save(result.bitmap, file, prefix);
+            }
+            publish(result, width, height);
+        });
+    }
+
+    /**
+     * Returns the atlas if its cells are the given card size, or null
+     */
+    public Bitmap getBitmap(int width, int height) {
+        Sheet current = sheet;
+        return current != null && current.cellWidth == width && current.cellHeight == height
+                ? current.bitmap : null;
+    }
+
+    /**
+     * Sets out to the cell of the card with the given id in the current atlas
+     */
+    public void getCardCell(int cardId, Rect out) {
+        getCell(cardId, out);
+    }
+
+    /**
+     * Sets out to the cell of a frame (see {@link CardPainter#FRAME_SELECTED}) in the current atlas
+     */
+    public void getFrameCell(int frame, Rect out) {
+        getCell(SetRules.CARD_COUNT + frame, out);
+    }
+
+    private void getCell(int index, Rect out) {
+        Sheet current = sheet;
+        int left = (index % COLUMNS) * current.cellWidth;
+        int top = (index / COLUMNS) * current.cellHeight;
+        out.set(left, top, left + current.cellWidth, top + current.cellHeight);
+    }
+
+    private void publish(Sheet result, int width, int height) {
+        mainHandler.post(() -> {
+            // Ignore a preloaded atlas once a different card size has been asked for
+            if (width == 0 && cardWidth > 0
+                    && (result.cellWidth != cardWidth || result.cellHeight != cardHeight)) {
+                return;
+            }
+            sheet = result;
+            for (Listener listener : new ArrayList<>(listeners)) {
+                listener.onAtlasReady();
+            }
+        });
+    }
+
+    private static boolean fitsBudget(int width, int height) {
+        long bitmapWidth = (long) COLUMNS * width;
+        long bitmapHeight = (long) ROWS * height;
+        return bitmapWidth <= MAX_BITMAP_SIZE && bitmapHeight <= MAX_BITMAP_SIZE
+                && bitmapWidth * bitmapHeight * 4 <= MAX_BITMAP_BYTES;
+    }
+
+    private Sheet generate(int width, int height) {
+        Bitmap bitmap = Bitmap.createBitmap(COLUMNS * width, ROWS * height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        float density = applicationContext.getResources().getDisplayMetrics().density;
+        float cardInset = CardPainter.CARD_INSET_DP * density;
+        float faceInset = cardInset + CardPainter.FACE_INSET_DP * density;
+
+        for (int id = 0; id < SetRules.CARD_COUNT; id++) {
+            int left = (id % COLUMNS) * width;
+            int top = (id / COLUMNS) * height;
+            painter.drawCard(canvas, left + cardInset, top + cardInset,
+                    left + width - cardInset, top + height - cardInset);
+            painter.draw(canvas, Card.of(id), left + faceInset, top + faceInset,
+                    width - 2 * faceInset, height - 2 * faceInset);
+        }
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            int index = SetRules.CARD_COUNT + frame;
+            int left = (index % COLUMNS) * width;
+            int top = (index / COLUMNS) * height;
+            painter.drawFrame(canvas, frame, left + cardInset, top + cardInset,
+                    left + width - cardInset, top + height - cardInset);
+        }
+        return new Sheet(bitmap, width, height);
+    }
+
+    private static Sheet load(File file, int width, int height) {
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath());
+        if (bitmap == null || bitmap.getWidth() != COLUMNS * width || bitmap.getHeight() != ROWS * height) {
+            Log.w(TAG, "Ignoring unreadable atlas " + file.getName());
+            return null;
+        }
+        return new Sheet(bitmap, width, height);
+    }
+
+    private void save(Bitmap bitmap, File file, String prefix) {
+        // Write to a temporary file first so a half-written atlas is never loaded
+        File temporary = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temporary)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.e(TAG, "Error saving atlas", e);
+            temporary.delete();
+            return;
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            return;
+        }
+
+        // One atlas is kept per orientation, replacing older sizes and versions of it;
+        // the other orientation's atlas stays for the next rotation
+        File[] files = applicationContext.getFilesDir().listFiles(
+                (dir, name) -> name.startsWith(FILE_BASE) && name.endsWith(FILE_SUFFIX));
+        if (files != null) {
+            for (File other : files) {
+                boolean otherOrientation = other.getName().startsWith(FILE_PREFIX)
+                        && !other.getName().startsWith(prefix);
+                if (!other.equals(file) && !otherOrientation) {
+                    other.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Start of the file names of atlases for the current orientation, read on the main thread
+     */
+    private String orientationPrefix() {
+        boolean landscape = applicationContext.getResources().getConfiguration().orientation
+                == Configuration.ORIENTATION_LANDSCAPE;
+        return FILE_PREFIX + (landscape ? "land_" : "port_");
+    }
+
+    private static int[] parseCellSize(String fileName, String prefix) {
+        String size = fileName.substring(prefix.length(), fileName.length() - FILE_SUFFIX.length());
+        int separator = size.indexOf('x');
+        try {
+            return new int[] {
+                    Integer.parseInt(size.substring(0, separator)),
+                    Integer.parseInt(size.substring(separator + 1))
+            };
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
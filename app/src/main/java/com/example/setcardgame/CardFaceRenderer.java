@@ -0,0 +1,134 @@
+package com.example.setcardgame;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Draws card faces (the coloured shapes) into bitmaps once and keeps them.
+ *
+ * There are only 81 faces, so every face is rasterised once for the current
+ * face size on a background thread, by the same {@link CardPainter} that
+ * {@link SetCardView} falls back to, and kept in a bounded LRU cache; binding a
+ * card is then a single bitmap assignment. When the face size changes the
+ * cache is dropped and the faces are drawn again. The {@link Listener} is told
+ * on the main thread when a face that was missing becomes available.
+ */
+public class CardFaceRenderer {
+    /**
+     * Notified on the main thread when the face of a card is ready
+     */
+    public interface Listener {
+        void onFaceReady(int cardId);
+    }
+
+    private final CardPainter painter;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CardFaceRenderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LruCache<Integer, Bitmap> faces;
+
+    // Faces being drawn, so a face missing from the cache is only requested once
+    private final boolean[] pending = new boolean[SetRules.CARD_COUNT];
+
+    private Listener listener;
+    private int faceWidth;
+    private int faceHeight;
+    // Bumped whenever the face size changes, so renders for an old size are dropped
+    private volatile int generation;
+
+    public CardFaceRenderer(CardPainter painter) {
+        this.painter = painter;
+
+        // At most an eighth of the heap, which easily holds all 81 faces at board sizes
+        int maxKilobytes = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        faces = new LruCache<Integer, Bitmap>(maxKilobytes) {
+            @Override
+            protected int sizeOf(Integer cardId, Bitmap face) {
+                return face.getByteCount() / 1024;
+            }
+        };
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the size faces are drawn at and starts drawing all of them, unless that is already the size
+     */
+    public void setFaceSize(int width, int height) {
+        if (width <= 0 || height <= 0 || (width == faceWidth && height == faceHeight)) {
+            return;
+        }
+        faceWidth = width;
+        faceHeight = height;
+        generation++;
+        faces.evictAll();
+        Arrays.fill(pending, false);
+
+        for (int cardId = 0; cardId < SetRules.CARD_COUNT; cardId++) {
+            requestFace(cardId);
+        }
+    }
+
+    /**
+     * Returns the face of the card at the current size, or null if it is still being drawn
+     */
+    public Bitmap getFace(Card card) {
+        Bitmap face = faces.get(card.getId());
+        if (face == null && faceWidth > 0) {
+            // Not drawn yet, or evicted from the cache
+            requestFace(card.getId());
+        }
+        return face;
+    }
+
+    private void requestFace(int cardId) {
+        if (pending[cardId]) {
+            return;
+        }
+        pending[cardId] = true;
+        int currentGeneration = generation;
+        int width = faceWidth;
+        int height = faceHeight;
+        executor.execute(() -> {
+            if (generation != currentGeneration) {
+                return;
+            }
+            Bitmap face = render(Card.of(cardId), width, height);
+            mainHandler.post(() -> {
+                if (generation == currentGeneration) {
+                    pending[cardId] = false;
+                    faces.put(cardId, face);
+                    if (listener != null) {
+                        listener.onFaceReady(cardId);
+                    }
+                }
+            });
+        });
+    }
+
+    public void shutdown() {
+        generation++;
+        executor.shutdownNow();
+        listener = null;
+    }
+
+    private Bitmap render(Card card, int width, int height) {
+        Bitmap face = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(face);
+
+        painter.draw(canvas, card, 0, 0, width, height);
+        return face;
+    }
+}
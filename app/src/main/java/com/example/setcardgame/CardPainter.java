@@ -0,0 +1,229 @@
+package com.example.setcardgame;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.XmlResourceParser;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import androidx.core.content.ContextCompat;
+import androidx.core.graphics.PathParser;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+
+/**
+ * Draws cards straight onto a canvas: the white card, its shapes and the
+ * selected/valid/invalid frames. {@link SetCardView} and {@link CardAtlas}
+ * both draw through it, so a card looks the same whether or not it comes from
+ * the atlas.
+ *
+ * The shape outlines are read once from the res/drawable/shape_solid_* vector
+ * drawables (their viewport and the data of their path) into {@link Path}s,
+ * and there is one fill, outline and stripe {@link Paint} per colour and one
+ * fill and stroke Paint per frame. Drawing allocates nothing, so it can be
+ * called from onDraw. Paths and paints are never changed after construction,
+ * so one painter can be shared by the UI and background threads.
+ */
+public class CardPainter {
+    public static final int FRAME_SELECTED = 0;
+    public static final int FRAME_VALID = 1;
+    public static final int FRAME_INVALID = 2;
+
+    // Card geometry within a card view, in dp: the card is inset from the view and the shapes from the card
+    static final float CARD_INSET_DP = 4;
+    static final float FACE_INSET_DP = 6;
+    static final float CARD_CORNER_DP = 6;
+    private static final float CARD_BORDER_DP = 1;
+    private static final float FRAME_CORNER_DP = 8;
+    private static final float FRAME_WIDTH_DP = 5;
+
+    private static final int COLOR_CARD = Color.WHITE;
+    private static final int COLOR_CARD_BORDER = 0xFFDDDDDD;
+    // By frame
+    private static final int[] FRAME_COLORS = {0xFF2196F3, 0xFF4CAF50, 0xFFF44336};
+    // Alpha of a frame's translucent fill
+    private static final int FRAME_FILL_ALPHA = 0x22;
+
+    private static final String ANDROID_NAMESPACE = "http://schemas.android.com/apk/res/android";
+    // Vector drawables holding the shape outlines, by Card.Shape ordinal
+    private static final int[] SHAPE_DRAWABLES = {
+            R.drawable.shape_solid_diamond, R.drawable.shape_solid_oval, R.drawable.shape_solid_squiggle
+    };
+
+    private static final float OUTLINE_WIDTH = 1f;
+    private static final float STRIPE_WIDTH = 0.7f;
+    private static final float STRIPE_SPACING = 2f;
+
+    // Vertical gap between the shapes of a card, and padding around each shape, in dp
+    private static final float SHAPE_GAP_DP = 4;
+    private static final float SHAPE_PADDING_DP = 4;
+
+    // By Card.Shape ordinal; paths are in the viewport units of their drawables
+    private final Path[] shapePaths = new Path[3];
+    private final float[] viewportWidths = new float[3];
+    private final float[] viewportHeights = new float[3];
+    // By Card.Color ordinal
+    private final Paint[] fillPaints = new Paint[3];
+    private final Paint[] outlinePaints = new Paint[3];
+    private final Paint[] stripePaints = new Paint[3];
+    private final Paint cardPaint;
+    private final Paint cardBorderPaint;
+    // By frame
+    private final Paint[] frameFillPaints = new Paint[FRAME_COLORS.length];
+    private final Paint[] frameStrokePaints = new Paint[FRAME_COLORS.length];
+    private final float density;
+
+    public CardPainter(Context context) {
+        density = context.getResources().getDisplayMetrics().density;
+
+        for (int shape = 0; shape < SHAPE_DRAWABLES.length; shape++) {
+            loadShape(context.getResources(), shape);
+        }
+
+        for (Card.Color color : Card.Color.values()) {
+            int argb = ContextCompat.getColor(context, getColorId(color));
+            fillPaints[color.ordinal()] = newPaint(argb, Paint.Style.FILL, 0);
+            outlinePaints[color.ordinal()] = newPaint(argb, Paint.Style.STROKE, OUTLINE_WIDTH);
+            stripePaints[color.ordinal()] = newPaint(argb, Paint.Style.STROKE, STRIPE_WIDTH);
+        }
+
+        cardPaint = newPaint(COLOR_CARD, Paint.Style.FILL, 0);
+        cardBorderPaint = newPaint(COLOR_CARD_BORDER, Paint.Style.STROKE, CARD_BORDER_DP * density);
+        for (int frame = 0; frame < FRAME_COLORS.length; frame++) {
+            int argb = FRAME_COLORS[frame];
+            frameFillPaints[frame] = newPaint((argb & 0x00FFFFFF) | (FRAME_FILL_ALPHA << 24), Paint.Style.FILL, 0);
+            frameStrokePaints[frame] = newPaint(argb, Paint.Style.STROKE, FRAME_WIDTH_DP * density);
+        }
+    }
+
+    /**
+     * Reads the viewport and the first path of a shape's vector drawable
+     */
+    private void loadShape(Resources resources, int shape) {
+        XmlResourceParser parser = resources.getXml(SHAPE_DRAWABLES[shape]);
+        try {
+            for (int event = parser.getEventType(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+                if (event != XmlPullParser.START_TAG) {
+                    continue;
+                }
+                if ("vector".equals(parser.getName())) {
+                    viewportWidths[shape] = parser.getAttributeFloatValue(ANDROID_NAMESPACE, "viewportWidth", 0);
+                    viewportHeights[shape] = parser.getAttributeFloatValue(ANDROID_NAMESPACE, "viewportHeight", 0);
+                } else if ("path".equals(parser.getName())) {
+                    shapePaths[shape] = PathParser.createPathFromPathData(
+                            parser.getAttributeValue(ANDROID_NAMESPACE, "pathData"));
+                    break;
+                }
+            }
+        } catch (XmlPullParserException | IOException e) {
+            throw new IllegalStateException("Cannot read shape drawable "
+                    + resources.getResourceEntryName(SHAPE_DRAWABLES[shape]), e);
+        } finally {
+            parser.close();
+        }
+        if (shapePaths[shape] == null || viewportWidths[shape] <= 0 || viewportHeights[shape] <= 0) {
+            throw new IllegalStateException("No viewport or path in shape drawable "
+                    + resources.getResourceEntryName(SHAPE_DRAWABLES[shape]));
+        }
+    }
+
+    private static Paint newPaint(int argb, Paint.Style style, float strokeWidth) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(argb);
+        paint.setStyle(style);
+        paint.setStrokeWidth(strokeWidth);
+        return paint;
+    }
+
+    /**
+     * Draws the white card with its border, filling the given bounds
+     */
+    public void drawCard(Canvas canvas, float left, float top, float right, float bottom) {
+        float corner = CARD_CORNER_DP * density;
+        canvas.drawRoundRect(left, top, right, bottom, corner, corner, cardPaint);
+        canvas.drawRoundRect(left, top, right, bottom, corner, corner, cardBorderPaint);
+    }
+
+    /**
+     * Draws a frame (FRAME_SELECTED, FRAME_VALID or FRAME_INVALID) over a card with the given bounds
+     */
+    public void drawFrame(Canvas canvas, int frame, float left, float top, float right, float bottom) {
+        float corner = FRAME_CORNER_DP * density;
+        canvas.drawRoundRect(left, top, right, bottom, corner, corner, frameFillPaints[frame]);
+        // The stroke is centred on its path, so inset it to stay within the card
+        float halfWidth = FRAME_WIDTH_DP * density / 2;
+        canvas.drawRoundRect(left + halfWidth, top + halfWidth, right - halfWidth, bottom - halfWidth,
+                corner, corner, frameStrokePaints[frame]);
+    }
+
+    /**
+     * Draws the card's one to three shapes stacked in the middle of the given area,
+     * each in a third of its height
+     */
+    public void draw(Canvas canvas, Card card, float left, float top, float width, float height) {
+        float gap = SHAPE_GAP_DP * density;
+        float padding = SHAPE_PADDING_DP * density;
+        int count = card.getNumber().ordinal() + 1;
+        float rowHeight = (height - 2 * gap) / 3;
+        float firstRowTop = top + (height - count * rowHeight - (count - 1) * gap) / 2;
+
+        // Fit the shape's viewport inside each row, keeping its aspect ratio
+        int shape = card.getShape().ordinal();
+        float viewportWidth = viewportWidths[shape];
+        float viewportHeight = viewportHeights[shape];
+        float scale = Math.min((width - 2 * padding) / viewportWidth, (rowHeight - 2 * padding) / viewportHeight);
+        if (scale <= 0) {
+            return;
+        }
+        float shapeLeft = left + (width - viewportWidth * scale) / 2;
+
+        for (int i = 0; i < count; i++) {
+            float shapeTop = firstRowTop + i * (rowHeight + gap) + (rowHeight - viewportHeight * scale) / 2;
+            int saveCount = canvas.save();
+            canvas.translate(shapeLeft, shapeTop);
+            canvas.scale(scale, scale);
+            drawShape(canvas, card, shapePaths[shape], viewportWidth, viewportHeight);
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    private void drawShape(Canvas canvas, Card card, Path path, float viewportWidth, float viewportHeight) {
+        int color = card.getColor().ordinal();
+        switch (card.getShading()) {
+            case SOLID:
+                canvas.drawPath(path, fillPaints[color]);
+                break;
+            case STRIPED:
+                int saveCount = canvas.save();
+                canvas.clipPath(path);
+                Paint stripePaint = stripePaints[color];
+                for (float x = STRIPE_SPACING; x < viewportWidth; x += STRIPE_SPACING) {
+                    canvas.drawLine(x, 0, x, viewportHeight, stripePaint);
+                }
+                canvas.restoreToCount(saveCount);
+                canvas.drawPath(path, outlinePaints[color]);
+                break;
+            case OUTLINE:
+                canvas.drawPath(path, outlinePaints[color]);
+                break;
+        }
+    }
+
+    static int getColorId(Card.Color color) {
+        switch (color) {
+            case RED:
+                return R.color.colorRed;
+            case GREEN:
+                return R.color.colorGreen;
+            case PURPLE:
+                return R.color.colorPurple;
+            default:
+                return R.color.colorRed;
+        }
+    }
+}
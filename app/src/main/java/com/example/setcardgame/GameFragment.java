@@ -4,10 +4,10 @@ import android.content.Context;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -15,19 +15,22 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.recyclerview.widget.GridLayoutManager;
-import androidx.recyclerview.widget.RecyclerView;
+import androidx.lifecycle.ViewModelProvider;
 
-import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
-public class GameFragment extends Fragment implements CardAdapter.OnCardClickListener {
-    private static final String TAG = "GameFragment";
+public class GameFragment extends Fragment implements BoardView.OnCardClickListener,
+        GameEngine.Listener {
+    private static final String KEY_GAME_SNAPSHOT = "game_snapshot";
+    private static final String KEY_MOVE_LOG = "move_log";
     
-    private GameModel gameModel;
-    private RecyclerView rvGameBoard;
-    private CardAdapter cardAdapter;
+    // The game runs on the engine thread; the UI only sees the states it publishes
+    private GameEngine gameEngine;
+    private GameState state;
+    private BoardView boardView;
+    private CardPainter cardPainter;
+    private CardFaceRenderer faceRenderer;
     private TextView tvScore;
     private TextView tvRemainingCards;
     private TextView tvTimer;
@@ -42,13 +45,19 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
     private Handler timerHandler;
     private Runnable timerRunnable;
     
-    private boolean isProcessingCards = false;
+    private boolean isConfirmingEndGame = false;
+    private final InputLatencyTracker latencyTracker = new InputLatencyTracker();
+    // Registered while a newly shown state waits for its frame to be drawn
+    private ViewTreeObserver feedbackObserver;
+    private final ViewTreeObserver.OnDrawListener feedbackDrawListener = this::onFeedbackDraw;
+    private int hintCount = 0;
     
     private GameFragmentListener listener;
     
     public interface GameFragmentListener {
         void onGameFinished(int score, long timeInSeconds);
         void onBackToMenuClicked();
+        BoardView obtainBoardView();
     }
     
     @Override
@@ -67,11 +76,24 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
         View view = inflater.inflate(R.layout.fragment_game, container, false);
         
         try {
-            // Initialize game model
-            gameModel = new GameModel();
+            // Initialize game model; the view model keeps it across rotation,
+            // and the saved snapshot brings it back after process death
+            GameViewModel gameViewModel = new ViewModelProvider(this).get(GameViewModel.class);
+            boolean resumeGame = gameViewModel.hasGame();
+            gameEngine = gameViewModel.getGameEngine();
+            state = gameEngine.getState();
+            if (!resumeGame && savedInstanceState != null) {
+                byte[] snapshot = savedInstanceState.getByteArray(KEY_GAME_SNAPSHOT);
+                if (snapshot != null) {
+                    // The saved move log is carried on, so the session can still be replayed.
+                    // The game is shown as resumed; onGameRestored starts a new one if it was not.
+                    gameEngine.restoreSnapshot(snapshot, savedInstanceState.getByteArray(KEY_MOVE_LOG),
+                            this::onGameRestored);
+                    resumeGame = true;
+                }
+            }
             
             // Initialize views
-            rvGameBoard = view.findViewById(R.id.rvGameBoard);
             tvScore = view.findViewById(R.id.tvScore);
             tvRemainingCards = view.findViewById(R.id.tvRemainingCards);
             tvTimer = view.findViewById(R.id.tvTimer);
@@ -84,11 +106,23 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
             btnEndGame = view.findViewById(R.id.btnEndGame);
             btnEndGame.setText(getString(R.string.end_game));
             
-            // Set up RecyclerView
-            int spanCount = 4; // 4 cards per row to fit all cards on screen
-            rvGameBoard.setLayoutManager(new GridLayoutManager(getContext(), spanCount));
-            cardAdapter = new CardAdapter(getContext(), gameModel.getBoard(), gameModel.getSelectedCards(), this);
-            rvGameBoard.setAdapter(cardAdapter);
+            // Set up the board, whose card views were already built while the menu was showing
+            boardView = listener.obtainBoardView();
+            ViewGroup boardContainer = view.findViewById(R.id.boardContainer);
+            boardContainer.addView(boardView);
+            cardPainter = new CardPainter(requireContext());
+            // Draw the cards from the shared sprite atlas, saved on disk after the first launch;
+            // without it each face is rendered into a bitmap of its own
+            CardAtlas atlas = null;
+            if (getResources().getBoolean(R.bool.use_card_atlas)) {
+                atlas = CardAtlas.getInstance(requireContext());
+                atlas.preload();
+            } else {
+                faceRenderer = new CardFaceRenderer(cardPainter);
+            }
+            boardView.bind(cardPainter, faceRenderer, atlas, this);
+            boardView.setState(state);
+            gameEngine.setListener(this);
             
             // Set up button listeners
             btnHome.setOnClickListener(v -> {
@@ -104,8 +138,12 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
             // Set up timer
             setupTimer();
             
-            // Start a new game
-            startNewGame();
+            if (resumeGame) {
+                resumeGame();
+            } else {
+                // Start a new game
+                startNewGame();
+            }
         } catch (Exception e) {
             // Log the error
             if (getContext() != null) {
@@ -122,7 +160,7 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
             @Override
             public void run() {
                 updateTimerDisplay();
-                if (!gameModel.isGameOver()) {
+                if (!state.isGameOver()) {
                     timerHandler.postDelayed(this, 1000);
                 }
             }
@@ -130,75 +168,62 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
     }
     
     private void startNewGame() {
-        gameModel.startNewGame();
-        updateUI();
+        isConfirmingEndGame = false;
+        gameEngine.startNewGame();
         
         // Reset and start timer
         timerHandler.removeCallbacks(timerRunnable);
         timerHandler.post(timerRunnable);
     }
     
-    private void giveHint() {
-        List<Integer> setIndices = gameModel.findValidSet();
-        if (!setIndices.isEmpty()) {
-            // Flash the first card of a valid set as a hint
-            int firstCardIndex = setIndices.get(0);
-            flashCard(firstCardIndex);
-        } else {
-            showMessage(getString(R.string.no_sets_found));
-            addCards();
+    private void onGameRestored(boolean restored) {
+        if (!restored && isAdded()) {
+            // Unreadable snapshot, e.g. from an older version of the app
+            showMessage(getString(R.string.game_not_restored));
+            startNewGame();
         }
     }
     
-    private void flashCard(int position) {
-        // Implement a visual flash effect for the hint
-        RecyclerView.ViewHolder viewHolder = rvGameBoard.findViewHolderForAdapterPosition(position);
-        if (viewHolder == null) {
-            // ViewHolder not found, may be outside visible area
-            // Scroll to make it visible
-            rvGameBoard.scrollToPosition(position);
-            // Try again after a short delay
-            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                if (isAdded()) {
-                    RecyclerView.ViewHolder vh = rvGameBoard.findViewHolderForAdapterPosition(position);
-                    if (vh != null) {
-                        View selectionHighlight = vh.itemView.findViewById(R.id.vSelection);
-                        if (selectionHighlight != null) {
-                            // Show highlight briefly
-                            selectionHighlight.setVisibility(View.VISIBLE);
-                            
-                            // Hide highlight after delay
-                            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                                if (isAdded()) { // Check if fragment is still attached
-                                    selectionHighlight.setVisibility(View.INVISIBLE);
-                                }
-                            }, 500);
-                        }
-                    }
-                }
-            }, 100);
-            return;
-        }
-        
-        View cardView = viewHolder.itemView;
-        View selectionHighlight = cardView.findViewById(R.id.vSelection);
+    /**
+     * Shows a game that was kept or restored instead of starting a new one
+     */
+    private void resumeGame() {
+        updateUI();
         
-        if (selectionHighlight != null) {
-            // Show highlight briefly
-            selectionHighlight.setVisibility(View.VISIBLE);
-            
-            // Hide highlight after delay
-            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                if (isAdded()) { // Check if fragment is still attached
-                    selectionHighlight.setVisibility(View.INVISIBLE);
-                }
-            }, 500);
+        // The timer stops by itself if the game turns out to be over
+        timerHandler.removeCallbacks(timerRunnable);
+        timerHandler.post(timerRunnable);
+    }
+    
+    private void giveHint() {
+        // The sets are found on the engine thread
+        gameEngine.hint(sets -> {
+            if (!isAdded()) {
+                return;
+            }
+            if (sets.length > 0) {
+                // Flash the first card of a valid set as a hint, moving to the next set on every press
+                int set = sets[hintCount++ % sets.length];
+                flashCard(GameModel.setSlot(set, 0));
+            } else {
+                showMessage(getString(R.string.no_sets_found));
+                addCards();
+            }
+        });
+    }
+    
+    private void flashCard(int position) {
+        // Every slot has its own view on screen, so show its selection frame briefly
+        if (boardView != null && position < state.getBoardSize()) {
+            boardView.getSlotView(position).flash();
         }
     }
     
     private void addCards() {
-        if (gameModel.addCards()) {
-            updateUI();
+        if (state.getBoardSize() >= SetRules.MAX_BOARD_SIZE) {
+            Toast.makeText(getContext(), getString(R.string.board_full), Toast.LENGTH_SHORT).show();
+        } else if (state.getRemainingCards() > 0) {
+            gameEngine.addCards();
         } else {
             Toast.makeText(getContext(), getString(R.string.deck_empty), Toast.LENGTH_SHORT).show();
         }
@@ -206,108 +231,69 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
     
     @Override
     public void onCardClick(int position) {
-        // If we already have 3 cards selected or are processing cards, ignore additional clicks
-        if (gameModel.getSelectedCards().size() >= 3 || isProcessingCards) {
+        // Every tap is accepted: a third card is validated and processed by the engine
+        // right away, and the toggled or replaced slots are rebound when it publishes the new state
+        long tapNanos = latencyTracker.onTap();
+        gameEngine.selectCardAndProcess(position,
+                acceptedNanos -> latencyTracker.onTapAccepted(tapNanos, acceptedNanos));
+    }
+    
+    @Override
+    public void onSelectionProcessed(int[] slots, int[] cardIds, boolean validSet) {
+        if (!isAdded()) {
             return;
         }
+        showMessage(getString(validSet ? R.string.set_found : R.string.not_a_set));
+        // Highlight the processed cards in green or red while play goes on
+        boardView.showSelectionFeedback(slots, cardIds, validSet);
+        latencyTracker.onSelectionProcessed();
+    }
+    
+    @Override
+    public void onStateChanged(GameState newState) {
+        if (!isAdded()) {
+            return;
+        }
+        GameState oldState = state;
+        state = newState;
+        boardView.setState(newState);
+        updateUI();
+        if (feedbackObserver == null) {
+            feedbackObserver = boardView.getViewTreeObserver();
+            feedbackObserver.addOnDrawListener(feedbackDrawListener);
+        }
         
-        try {
-            // Add this card to selected cards
-            gameModel.selectCard(position);
-            cardAdapter.notifyDataSetChanged();
-            
-            // If we just selected a third card
-            if (gameModel.getSelectedCards().size() == 3) {
-                // Set processing flag to prevent additional clicks during validation
-                isProcessingCards = true;
-                
-                // Check if it's a valid set
-                boolean isValidSet = Card.isValidSet(
-                        gameModel.getSelectedCards().get(0),
-                        gameModel.getSelectedCards().get(1),
-                        gameModel.getSelectedCards().get(2)
-                );
-                
-                // Show appropriate message
-                if (isValidSet) {
-                    showMessage(getString(R.string.set_found));
-                    // Highlight selected cards in green for valid set
-                    cardAdapter.setValidSet(true);
-                } else {
-                    showMessage(getString(R.string.not_a_set));
-                    // Highlight selected cards in red for invalid set
-                    cardAdapter.setValidSet(false);
-                }
-                
-                // Make all three cards visibly marked
-                cardAdapter.notifyDataSetChanged();
-                
-                // Use shorter delay for better responsiveness
-                new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                    try {
-                        // For valid sets, process with a delay to show highlight longer
-                        // Use the getter method to check if it's a valid set from the adapter
-                        if (cardAdapter.getIsValidSet()) {
-                            // Use shorter delay for better responsiveness
-                            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                                try {
-                                    // Process the set (this will clear the selection)
-                                    gameModel.processSelectedSet();
-                                    // Reset the card validation status
-                                    cardAdapter.resetSetValidation();
-                                    cardAdapter.notifyDataSetChanged();
-                                    updateUI();
-                                    
-                                    // Reset processing flag
-                                    isProcessingCards = false;
-                                    
-                                    // Check if game is over
-                                    if (gameModel.isGameOver()) {
-                                        endGame();
-                                    }
-                                } catch (Exception e) {
-                                    Log.e(TAG, "Error processing valid set", e);
-                                    isProcessingCards = false;
-                                }
-                            }, 500); // 0.5 second delay to see the valid/invalid status
-                        } else {
-                            // For invalid sets, just clear the selection
-                            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                                try {
-                                    // Just clear the selection for invalid sets
-                                    gameModel.clearSelectedCards();
-                                    // Reset the card validation status
-                                    cardAdapter.resetSetValidation();
-                                    cardAdapter.notifyDataSetChanged();
-                                    updateUI();
-                                    
-                                    // Reset processing flag
-                                    isProcessingCards = false;
-                                } catch (Exception e) {
-                                    Log.e(TAG, "Error processing invalid set", e);
-                                    isProcessingCards = false;
-                                }
-                            }, 500); // 0.5 second delay to see the invalid status
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error in delayed processing", e);
-                        isProcessingCards = false;
-                    }
-                }, 500); // Reduced delay for better responsiveness
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error selecting card", e);
-            isProcessingCards = false;
+        // Check if game is over
+        if (newState.isGameOver() && !oldState.isGameOver() && !isConfirmingEndGame) {
+            endGame();
+        }
+    }
+    
+    private void onFeedbackDraw() {
+        // The tree is about to be drawn; a message posted now runs once the frame is done.
+        // Listeners cannot be removed during the draw either, so that happens then too.
+        if (boardView != null) {
+            boardView.post(this::stopFeedbackTracking);
+        }
+    }
+    
+    private void stopFeedbackTracking() {
+        if (feedbackObserver == null) {
+            return;
+        }
+        if (feedbackObserver.isAlive()) {
+            feedbackObserver.removeOnDrawListener(feedbackDrawListener);
         }
+        feedbackObserver = null;
+        latencyTracker.onFeedbackDrawn();
     }
     
     private void updateUI() {
-        // Update adapter with the current board state
-        cardAdapter.notifyDataSetChanged();
+        // Board slots are updated in onStateChanged
         
         // Update UI elements with current game state
-        tvScore.setText(getString(R.string.score, gameModel.getScore()));
-        tvRemainingCards.setText(getString(R.string.cards_remaining, gameModel.getRemainingCards()));
+        tvScore.setText(getString(R.string.score, state.getScore()));
+        tvRemainingCards.setText(getString(R.string.cards_remaining, state.getRemainingCards()));
         updateTimerDisplay();
         
         // Make sure Home button is visible
@@ -319,7 +305,7 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
     }
     
     private void updateTimerDisplay() {
-        long seconds = gameModel.getElapsedTimeSeconds();
+        long seconds = gameEngine.getElapsedTimeSeconds();
         String timeString = String.format(Locale.getDefault(), "%02d:%02d", 
                 TimeUnit.SECONDS.toMinutes(seconds),
                 seconds % 60);
@@ -344,7 +330,7 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
         
         // Notify activity that game is finished
         if (listener != null) {
-            listener.onGameFinished(gameModel.getScore(), gameModel.getElapsedTimeSeconds());
+            listener.onGameFinished(state.getScore(), gameEngine.getElapsedTimeSeconds());
         }
     }
     
@@ -353,7 +339,8 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
      */
     private void endGameManually() {
         // Set game over flag in the model
-        gameModel.setGameOver(true);
+        isConfirmingEndGame = true;
+        gameEngine.setGameOver(true);
         
         // Stop the timer
         if (timerHandler != null) {
@@ -370,7 +357,8 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
             })
             .setNegativeButton(android.R.string.no, (dialog, which) -> {
                 // Continue the game
-                gameModel.setGameOver(false);
+                isConfirmingEndGame = false;
+                gameEngine.setGameOver(false);
                 // Restart timer
                 if (timerHandler != null && timerRunnable != null) {
                     timerHandler.post(timerRunnable);
@@ -393,11 +381,48 @@ public class GameFragment extends Fragment implements CardAdapter.OnCardClickLis
     public void onResume() {
         super.onResume();
         // Resume timer when fragment is resumed (if game is not over)
-        if (timerHandler != null && timerRunnable != null && gameModel != null && !gameModel.isGameOver()) {
+        if (timerHandler != null && timerRunnable != null && state != null && !state.isGameOver()) {
             timerHandler.post(timerRunnable);
         }
     }
     
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (gameEngine != null) {
+            // The engine keeps these up to date with every state it publishes, so nothing waits here
+            outState.putByteArray(KEY_GAME_SNAPSHOT, gameEngine.getSnapshot());
+            outState.putByteArray(KEY_MOVE_LOG, gameEngine.getMoveLog());
+        }
+    }
+    
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // The game may outlive this view in the view model
+        if (gameEngine != null) {
+            gameEngine.setListener(null);
+        }
+        if (faceRenderer != null) {
+            faceRenderer.shutdown();
+            faceRenderer = null;
+        }
+        if (feedbackObserver != null && feedbackObserver.isAlive()) {
+            feedbackObserver.removeOnDrawListener(feedbackDrawListener);
+        }
+        feedbackObserver = null;
+        if (boardView != null && !requireActivity().isChangingConfigurations()) {
+            // The board is kept by the activity for the next game. When the activity is
+            // being recreated instead, the board goes with it and the new one builds its own.
+            boardView.release();
+            ViewGroup boardContainer = (ViewGroup) boardView.getParent();
+            if (boardContainer != null) {
+                boardContainer.removeView(boardView);
+            }
+        }
+        boardView = null;
+    }
+    
     @Override
     public void onDetach() {
         super.onDetach();
@@ -0,0 +1,46 @@
+package com.example.setcardgame;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.ViewModel;
+
+/**
+ * Keeps the running game across configuration changes such as rotation.
+ * Process death is covered separately by the snapshot GameFragment saves
+ * in onSaveInstanceState.
+ *
+ * The game runs on a {@link GameEngine}, which publishes its states to the
+ * main thread.
+ */
+public class GameViewModel extends ViewModel {
+    private GameEngine gameEngine;
+    
+    /**
+     * Whether a game was already created for this screen
+     */
+    public boolean hasGame() {
+        return gameEngine != null;
+    }
+    
+    public GameEngine getGameEngine() {
+        if (gameEngine == null) {
+            GameModel gameModel = new GameModel();
+            // Every move of the current game is logged so it can be replayed or checked afterwards;
+            // the log starts over with each game, and after process death GameFragment restores
+            // it along with the snapshot
+            gameModel.setMoveLog(new MoveLog());
+            Handler mainHandler = new Handler(Looper.getMainLooper());
+            gameEngine = new GameEngine(gameModel, mainHandler::post);
+        }
+        return gameEngine;
+    }
+    
+    @Override
+    protected void onCleared() {
+        if (gameEngine != null) {
+            gameEngine.setListener(null);
+            gameEngine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.setcardgame;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly card taps are answered and logs a summary every few taps.
+ *
+ * Two latencies are tracked:
+ * tap-to-feedback, from a tap to the end of the frame that first shows its
+ * selection or valid/invalid highlight; and tap-to-next-accepted-tap, from a tap
+ * that completes a selection to the moment the engine starts applying the
+ * following tap to the new board. All times are {@link System#nanoTime()}.
+ */
+public class InputLatencyTracker {
+    private static final String TAG = "InputLatency";
+    private static final int LOG_INTERVAL = 20;
+
+    private final Stats feedback = new Stats("tap-to-feedback");
+    private final Stats nextAcceptedTap = new Stats("tap-to-next-accepted-tap");
+
+    // Last tap whose feedback has not been drawn yet
+    private long feedbackTapNanos = -1;
+    // Last tap the engine started applying, and the tap that last completed a selection
+    private long acceptedTapNanos = -1;
+    private long completingTapNanos = -1;
+
+    private static final class Stats {
+        final String name;
+        int count;
+        long totalNanos;
+        long maxNanos;
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (count % LOG_INTERVAL == 0) {
+                Log.d(TAG, String.format(Locale.US, "%s: %d taps, mean %.1f ms, max %d ms",
+                        name, count, totalNanos / 1e6 / count, TimeUnit.NANOSECONDS.toMillis(maxNanos)));
+            }
+        }
+    }
+
+    /**
+     * A card was tapped; returns the time of the tap, to be passed to {@link #onTapAccepted(long, long)}
+     */
+    public long onTap() {
+        feedbackTapNanos = System.nanoTime();
+        return feedbackTapNanos;
+    }
+
+    /**
+     * The engine started applying the tap made at tapNanos
+     */
+    public void onTapAccepted(long tapNanos, long acceptedNanos) {
+        if (completingTapNanos >= 0) {
+            nextAcceptedTap.add(acceptedNanos - completingTapNanos);
+            completingTapNanos = -1;
+        }
+        acceptedTapNanos = tapNanos;
+    }
+
+    /**
+     * The last accepted tap completed a selection, which has been processed
+     */
+    public void onSelectionProcessed() {
+        completingTapNanos = acceptedTapNanos;
+    }
+
+    /**
+     * A frame showing the state following the last tap has been drawn
+     */
+    public void onFeedbackDrawn() {
+        if (feedbackTapNanos < 0) {
+            return;
+        }
+        feedback.add(System.nanoTime() - feedbackTapNanos);
+        feedbackTapNanos = -1;
+    }
+}
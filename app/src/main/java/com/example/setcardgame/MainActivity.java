@@ -7,6 +7,7 @@ import androidx.fragment.app.FragmentTransaction;
 
 import android.os.Bundle;
 import android.util.Log;
+import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.Toast;
 
@@ -21,6 +22,8 @@ public class MainActivity extends AppCompatActivity implements
     private static final String TAG = "MainActivity";
     private ImageButton btnToggleMusic;
     private MusicManager musicManager;
+    // Game board with all its card views, built while the menu is showing and reused by every game
+    private BoardView boardView;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -122,6 +125,27 @@ public class MainActivity extends AppCompatActivity implements
         loadFragment(new GameFragment());
     }
     
+    @Override
+    public void onMenuIdle() {
+        if (boardView == null) {
+            boardView = new BoardView(this);
+        }
+        if (getResources().getBoolean(R.bool.use_card_atlas)) {
+            CardAtlas.getInstance(this).preload();
+        }
+    }
+    
+    @Override
+    public BoardView obtainBoardView() {
+        if (boardView == null) {
+            boardView = new BoardView(this);
+        } else if (boardView.getParent() != null) {
+            // Still in the view of the previous game
+            ((ViewGroup) boardView.getParent()).removeView(boardView);
+        }
+        return boardView;
+    }
+    
     @Override
     public void onLeaderboardClicked() {
         loadFragment(new LeaderboardFragment());
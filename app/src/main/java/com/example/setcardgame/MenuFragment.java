@@ -2,6 +2,7 @@ package com.example.setcardgame;
 
 import android.content.Context;
 import android.os.Bundle;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -24,6 +25,7 @@ public class MenuFragment extends Fragment {
         void onPlayGameClicked();
         void onLeaderboardClicked();
         void onRulesClicked();
+        void onMenuIdle();
     }
     
     @Override
@@ -81,6 +83,14 @@ public class MenuFragment extends Fragment {
         super.onResume();
         // Update the best score when resuming to ensure it's current
         updateBestScore();
+        
+        // Let the activity get the game ready once the menu is drawn and nothing else is going on
+        Looper.myQueue().addIdleHandler(() -> {
+            if (listener != null && isResumed()) {
+                listener.onMenuIdle();
+            }
+            return false;
+        });
     }
     
     private void updateBestScore() {
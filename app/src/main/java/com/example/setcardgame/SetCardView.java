@@ -0,0 +1,280 @@
+package com.example.setcardgame;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Outline;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * One card on the board, drawn directly on the canvas: the white card, its
+ * shapes and the selection frame.
+ *
+ * The card and frame are drawn by the {@link CardPainter}, and the shapes come
+ * from the card's pre-rendered face bitmap when there is one (see
+ * {@link CardFaceRenderer}) and are otherwise drawn by the painter too. When
+ * a {@link CardAtlas} of this view's size is ready, the card and its frame are
+ * instead copied from their cells of the atlas. Everything used by onDraw is
+ * allocated up front.
+ *
+ * {@link #playFeedback} fades a processed card out over the card that
+ * replaced it, with a green or red frame, while the new card can already be
+ * selected.
+ */
+public class SetCardView extends View {
+    // Width to height, as on a real card
+    private static final float ASPECT_RATIO = 2f / 3f;
+    private static final long FLASH_DURATION_MILLIS = 500;
+
+    private final float density;
+    private final RectF cardRect = new RectF();
+    private final RectF faceRect = new RectF();
+    private final RectF viewRect = new RectF();
+    private final Rect atlasCell = new Rect();
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Runnable endFlash = () -> {
+        flashing = false;
+        invalidate();
+    };
+
+    private CardPainter painter;
+    private CardAtlas atlas;
+    private Card card;
+    private Bitmap face;
+    private boolean flashing;
+
+    // The processed card fading out, while feedback plays
+    private ValueAnimator feedbackAnimator;
+    private Card outgoingCard;
+    private Bitmap outgoingFace;
+    private boolean feedbackValid;
+    private float feedbackAlpha;
+
+    public SetCardView(Context context) {
+        this(context, null);
+    }
+
+    public SetCardView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        density = getResources().getDisplayMetrics().density;
+
+        // Shadow follows the rounded card, not the view bounds
+        setOutlineProvider(new ViewOutlineProvider() {
+            @Override
+            public void getOutline(View view, Outline outline) {
+                outline.setRoundRect(Math.round(cardRect.left), Math.round(cardRect.top),
+                        Math.round(cardRect.right), Math.round(cardRect.bottom),
+                        CardPainter.CARD_CORNER_DP * density);
+            }
+        });
+    }
+
+    public void setPainter(CardPainter painter) {
+        this.painter = painter;
+    }
+
+    /**
+     * Draws from the atlas whenever it has cells of this view's size
+     */
+    public void setAtlas(@Nullable CardAtlas atlas) {
+        if (this.atlas != atlas) {
+            this.atlas = atlas;
+            invalidate();
+        }
+    }
+
+    /**
+     * Shows the given card, using its pre-rendered face if it is not null
+     */
+    public void setCard(Card card, @Nullable Bitmap face) {
+        if (this.card != card || this.face != face) {
+            this.card = card;
+            this.face = face;
+            invalidate();
+        }
+    }
+
+    /**
+     * Width of the area the shapes are drawn in, for {@link CardFaceRenderer#setFaceSize(int, int)}
+     */
+    public int getFaceWidth() {
+        return Math.round(faceRect.width());
+    }
+
+    public int getFaceHeight() {
+        return Math.round(faceRect.height());
+    }
+
+    /**
+     * Briefly shows the selection frame, e.g. as a hint
+     */
+    public void flash() {
+        flashing = true;
+        invalidate();
+        removeCallbacks(endFlash);
+        postDelayed(endFlash, FLASH_DURATION_MILLIS);
+    }
+
+    /**
+     * Plays the valid/invalid highlight for a processed card: the outgoing card and the frame
+     * fade out over the card now in this slot
+     */
+    public void playFeedback(Card outgoing, @Nullable Bitmap outgoingFace, boolean validSet, long durationMillis) {
+        if (feedbackAnimator == null) {
+            feedbackAnimator = ValueAnimator.ofFloat(1f, 0f);
+            feedbackAnimator.addUpdateListener(animation -> {
+                feedbackAlpha = (float) animation.getAnimatedValue();
+                invalidate();
+            });
+        }
+        feedbackAnimator.cancel();
+        outgoingCard = outgoing;
+        this.outgoingFace = outgoingFace;
+        feedbackValid = validSet;
+        feedbackAnimator.setDuration(durationMillis);
+        feedbackAnimator.start();
+    }
+
+    /**
+     * Stops any feedback animation, e.g. when the view is rebound to another slot
+     */
+    public void cancelFeedback() {
+        if (feedbackAnimator != null) {
+            feedbackAnimator.cancel();
+        }
+        feedbackAlpha = 0;
+        outgoingCard = null;
+        outgoingFace = null;
+        invalidate();
+    }
+
+    @Override
+    public void setSelected(boolean selected) {
+        if (selected != isSelected()) {
+            super.setSelected(selected);
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = Math.round(width / ASPECT_RATIO);
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        float cardInset = CardPainter.CARD_INSET_DP * density;
+        float faceInset = CardPainter.FACE_INSET_DP * density;
+        viewRect.set(0, 0, w, h);
+        cardRect.set(cardInset, cardInset, w - cardInset, h - cardInset);
+        faceRect.set(cardRect.left + faceInset, cardRect.top + faceInset,
+                cardRect.right - faceInset, cardRect.bottom - faceInset);
+        invalidateOutline();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(endFlash);
+        flashing = false;
+        if (feedbackAnimator != null) {
+            feedbackAnimator.cancel();
+        }
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        Bitmap sheet = atlas != null ? atlas.getBitmap(getWidth(), getHeight()) : null;
+        // A hardware canvas cannot draw a bitmap larger than its maximum texture size
+        if (sheet != null && sheet.getWidth() <= canvas.getMaximumBitmapWidth()
+                && sheet.getHeight() <= canvas.getMaximumBitmapHeight()) {
+            drawFromAtlas(canvas, sheet);
+            return;
+        }
+        if (painter == null) {
+            return;
+        }
+
+        drawCard(canvas);
+
+        if (card != null) {
+            drawFace(canvas, card, face);
+        }
+
+        boolean showFeedback = feedbackAlpha > 0 && outgoingCard != null;
+        if (showFeedback && outgoingCard != card) {
+            // The outgoing card on a white card of its own, fading to reveal the new one
+            int saveCount = canvas.saveLayerAlpha(viewRect, Math.round(feedbackAlpha * 255));
+            drawCard(canvas);
+            drawFace(canvas, outgoingCard, outgoingFace);
+            canvas.restoreToCount(saveCount);
+        }
+
+        if (isSelected() || flashing) {
+            drawFrame(canvas, CardPainter.FRAME_SELECTED, 1f);
+        } else if (showFeedback) {
+            drawFrame(canvas, feedbackValid ? CardPainter.FRAME_VALID : CardPainter.FRAME_INVALID, feedbackAlpha);
+        }
+    }
+
+    private void drawFromAtlas(Canvas canvas, Bitmap sheet) {
+        if (card != null) {
+            drawCell(canvas, sheet, card.getId(), false, 1f);
+        }
+
+        boolean showFeedback = feedbackAlpha > 0 && outgoingCard != null;
+        if (showFeedback && outgoingCard != card) {
+            drawCell(canvas, sheet, outgoingCard.getId(), false, feedbackAlpha);
+        }
+
+        if (isSelected() || flashing) {
+            drawCell(canvas, sheet, CardPainter.FRAME_SELECTED, true, 1f);
+        } else if (showFeedback) {
+            drawCell(canvas, sheet, feedbackValid ? CardPainter.FRAME_VALID : CardPainter.FRAME_INVALID,
+                    true, feedbackAlpha);
+        }
+    }
+
+    private void drawCell(Canvas canvas, Bitmap sheet, int index, boolean frame, float alpha) {
+        if (frame) {
+            atlas.getFrameCell(index, atlasCell);
+        } else {
+            atlas.getCardCell(index, atlasCell);
+        }
+        bitmapPaint.setAlpha(Math.round(255 * alpha));
+        canvas.drawBitmap(sheet, atlasCell, viewRect, bitmapPaint);
+        bitmapPaint.setAlpha(255);
+    }
+
+    private void drawCard(Canvas canvas) {
+        painter.drawCard(canvas, cardRect.left, cardRect.top, cardRect.right, cardRect.bottom);
+    }
+
+    private void drawFace(Canvas canvas, Card card, @Nullable Bitmap face) {
+        if (face != null) {
+            canvas.drawBitmap(face, null, faceRect, bitmapPaint);
+        } else {
+            painter.draw(canvas, card, faceRect.left, faceRect.top, faceRect.width(), faceRect.height());
+        }
+    }
+
+    private void drawFrame(Canvas canvas, int frame, float alpha) {
+        // The painter's paints are shared, so a fading frame goes through a layer
+        int saveCount = alpha < 1f ? canvas.saveLayerAlpha(viewRect, Math.round(255 * alpha)) : -1;
+        painter.drawFrame(canvas, frame, cardRect.left, cardRect.top, cardRect.right, cardRect.bottom);
+        if (saveCount >= 0) {
+            canvas.restoreToCount(saveCount);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.setcardgame.benchmarks;
+
+import com.example.setcardgame.Board;
+import com.example.setcardgame.SetRules;
+
+import java.util.Random;
+
+/**
+ * Reproducible board layouts for the benchmarks
+ */
+public final class Boards {
+    /** Layouts a board can be built with */
+    public enum Layout {
+        /** Cards drawn uniformly from the deck */
+        RANDOM,
+        /** As few sets as possible: no set up to 20 cards, a 20-card cap plus one card at 21 */
+        NO_SET
+    }
+
+    private static final int MAX_CAP_SIZE = 20;
+
+    private Boards() {}
+
+    static int[] build(Layout layout, int size, long seed) {
+        Random random = new Random(seed);
+        return layout == Layout.RANDOM ? randomCards(size, random) : fewestSets(size, random);
+    }
+
+    private static int[] randomCards(int size, Random random) {
+        int[] ids = shuffledIds(random);
+        int[] board = new int[size];
+        System.arraycopy(ids, 0, board, 0, size);
+        return board;
+    }
+
+    /**
+     * Grows random caps (card sets without a set) greedily until one is large enough
+     */
+    private static int[] fewestSets(int size, Random random) {
+        int capSize = Math.min(size, MAX_CAP_SIZE);
+        while (true) {
+            int[] ids = shuffledIds(random);
+            Board cap = new Board();
+            for (int id : ids) {
+                cap.addId(id);
+                if (cap.getSetCount() > 0) {
+                    cap.removeAt(cap.size() - 1);
+                }
+            }
+            if (cap.size() < capSize) {
+                continue;
+            }
+
+            int[] board = new int[size];
+            for (int i = 0; i < capSize; i++) {
+                board[i] = cap.idAt(i);
+            }
+            // Any 21 cards hold a set, so fill the rest from outside the cap
+            for (int i = capSize, next = 0; i < size; next++) {
+                if (!cap.containsId(ids[next])) {
+                    board[i++] = ids[next];
+                }
+            }
+            return board;
+        }
+    }
+
+    private static int[] shuffledIds(Random random) {
+        int[] ids = new int[SetRules.CARD_COUNT];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+}
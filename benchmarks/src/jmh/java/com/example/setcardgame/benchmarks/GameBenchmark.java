@@ -0,0 +1,60 @@
+package com.example.setcardgame.benchmarks;
+
+import com.example.setcardgame.DealStrategy;
+import com.example.setcardgame.GameModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Dealing a new game and taking sets through GameModel.
+ * startNewGame is the opening-deal latency of each deal strategy.
+ */
+@State(Scope.Thread)
+public class GameBenchmark {
+    @Param({"ADD_CARDS", "RESHUFFLE"})
+    public DealStrategy dealStrategy;
+
+    private GameModel gameModel;
+
+    @Setup
+    public void setUp() {
+        gameModel = new GameModel(1);
+        gameModel.setDealStrategy(dealStrategy);
+        gameModel.startNewGame();
+    }
+
+    @Benchmark
+    public GameModel startNewGame() {
+        gameModel.startNewGame();
+        return gameModel;
+    }
+
+    /**
+     * One full find, select, validate and replace cycle. A new game is dealt
+     * whenever the current one ends, about once every 25 sets.
+     */
+    @Benchmark
+    public int processSelectedSet() {
+        List<Integer> set = gameModel.findValidSet();
+        if (set.isEmpty()) {
+            if (!gameModel.addCards()) {
+                gameModel.startNewGame();
+            }
+            return gameModel.getScore();
+        }
+        for (int i = 0; i < set.size(); i++) {
+            gameModel.selectCard(set.get(i));
+        }
+        gameModel.processSelectedSet();
+        if (gameModel.isGameOver()) {
+            gameModel.startNewGame();
+        }
+        return gameModel.getScore();
+    }
+}
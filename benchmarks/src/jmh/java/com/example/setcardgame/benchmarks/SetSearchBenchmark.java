@@ -0,0 +1,77 @@
+package com.example.setcardgame.benchmarks;
+
+import com.example.setcardgame.Board;
+import com.example.setcardgame.GameModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Set search on 12- to 21-card boards, random and with as few sets as possible
+ */
+@State(Scope.Thread)
+public class SetSearchBenchmark {
+    @Param({"12", "15", "18", "21"})
+    public int boardSize;
+
+    @Param({"RANDOM", "NO_SET"})
+    public Boards.Layout layout;
+
+    private int[] boardIds;
+    private GameModel gameModel;
+
+    @Setup
+    public void setUp() {
+        boardIds = Boards.build(layout, boardSize, 7);
+        gameModel = new GameModel(7);
+        gameModel.startNewGame(boardIds);
+    }
+
+    /**
+     * GameModel.hasValidSet reads the set count the board keeps up to date;
+     * the cost of keeping it is measured by layOutBoard
+     */
+    @Benchmark
+    public boolean hasValidSet() {
+        return gameModel.hasValidSet();
+    }
+
+    @Benchmark
+    public List<Integer> findValidSet() {
+        return gameModel.findValidSet();
+    }
+
+    @Benchmark
+    public int[] findAllSets() {
+        return gameModel.findAllSets();
+    }
+
+    /**
+     * Lays out the board afresh and lists its sets, so no cached state is reused
+     */
+    @Benchmark
+    public int[] findAllSetsOnNewBoard() {
+        Board board = new Board();
+        for (int id : boardIds) {
+            board.addId(id);
+        }
+        return board.findAllSets();
+    }
+
+    /**
+     * Lays out the whole board, which includes keeping its set count up to date
+     */
+    @Benchmark
+    public Board layOutBoard() {
+        Board board = new Board();
+        for (int id : boardIds) {
+            board.addId(id);
+        }
+        return board;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.setcardgame.benchmarks;
+
+import com.example.setcardgame.Card;
+import com.example.setcardgame.SetRules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Cost of checking one triple, through Card objects and through raw ids
+ */
+@State(Scope.Thread)
+public class SetValidationBenchmark {
+    private static final int TRIPLES = 1024;
+
+    private final int[] ids = new int[TRIPLES * 3];
+    private final Card[] cards = new Card[TRIPLES * 3];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        for (int i = 0; i < TRIPLES; i++) {
+            int id1 = random.nextInt(SetRules.CARD_COUNT);
+            int id2 = random.nextInt(SetRules.CARD_COUNT);
+            // Make about half of the triples valid sets
+            int id3 = random.nextBoolean() ? SetRules.thirdCard(id1, id2) : random.nextInt(SetRules.CARD_COUNT);
+            ids[3 * i] = id1;
+            ids[3 * i + 1] = id2;
+            ids[3 * i + 2] = id3;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            cards[i] = Card.of(ids[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRIPLES)
+    public int isValidSetCards() {
+        int valid = 0;
+        for (int i = 0; i < cards.length; i += 3) {
+            if (Card.isValidSet(cards[i], cards[i + 1], cards[i + 2])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRIPLES)
+    public int isValidSetIds() {
+        int valid = 0;
+        for (int i = 0; i < ids.length; i += 3) {
+            if (SetRules.isValidSet(ids[i], ids[i + 1], ids[i + 2])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
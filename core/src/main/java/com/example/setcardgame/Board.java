@@ -0,0 +1,259 @@
+package com.example.setcardgame;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The cards laid out on the table, stored as card ids by slot.
+ *
+ * Alongside the slots the board keeps a card id -> slot index and a presence
+ * bitmap over card ids, so finding, replacing and removing a card are O(1).
+ * Removing a card fills its slot with the card from the last slot instead of
+ * shifting everything after it. Every slot change is reported to the
+ * {@link Listener}. As a {@link java.util.List} the board is read-only.
+ *
+ * The number of sets on the board is kept up to date as cards come and go:
+ * only the sets through the changed card are counted, which is one
+ * completion-table lookup per other card on the board.
+ */
+public class Board extends AbstractList<Card> implements RandomAccess {
+    /**
+     * Notified for every slot that changes
+     */
+    public interface Listener {
+        void onSlotChanged(int position);
+        void onSlotInserted(int position);
+        void onSlotRemoved(int position);
+    }
+
+    private static final int NOT_ON_BOARD = -1;
+
+    private final byte[] slots = new byte[SetRules.CARD_COUNT];
+    private final int[] slotOfId = new int[SetRules.CARD_COUNT];
+    private int size;
+
+    // Presence bitmap over card ids (0-63, 64-80)
+    private long maskLow;
+    private long maskHigh;
+
+    private int setCount;
+    private int version;
+
+    private Listener listener;
+
+    public Board() {
+        Arrays.fill(slotOfId, NOT_ON_BOARD);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Card get(int position) {
+        return Card.of(idAt(position));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the card in the given slot
+     */
+    public int idAt(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Slot " + position + ", size " + size);
+        }
+        return slots[position];
+    }
+
+    /**
+     * Checks if the card with the given id is on the board
+     */
+    public boolean containsId(int id) {
+        long word = id < 64 ? maskLow : maskHigh;
+        return (word & (1L << id)) != 0;
+    }
+
+    /**
+     * Returns the presence bitmap of card ids 0-63
+     */
+    public long getMaskLow() {
+        return maskLow;
+    }
+
+    /**
+     * Returns the presence bitmap of card ids 64-80 (bit n is id 64 + n)
+     */
+    public long getMaskHigh() {
+        return maskHigh;
+    }
+
+    /**
+     * Returns the slot holding the card with the given id, or -1 if it is not on the board
+     */
+    public int slotOf(int id) {
+        return slotOfId[id];
+    }
+
+    /**
+     * Returns the number of valid sets among the cards on the board
+     */
+    public int getSetCount() {
+        return setCount;
+    }
+
+    /**
+     * Returns every valid set on the board, each packed into one int as three
+     * ascending 8-bit slots (see {@link GameModel#setSlot(int, int)})
+     */
+    public int[] findAllSets() {
+        int[] sets = new int[setCount];
+        int count = 0;
+
+        for (int i = 0; i < size - 1 && count < sets.length; i++) {
+            int id1 = slots[i];
+            for (int j = i + 1; j < size; j++) {
+                int k = slotOfId[SetRules.thirdCard(id1, slots[j])];
+                if (k > j) {
+                    sets[count++] = i | (j << 8) | (k << 16);
+                }
+            }
+        }
+
+        return sets;
+    }
+
+    /**
+     * Returns a number that changes whenever a slot changes
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a copy of the card ids by slot
+     */
+    public int[] toIdArray() {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = slots[i];
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Card && containsId(((Card) o).getId());
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof Card ? slotOfId[((Card) o).getId()] : NOT_ON_BOARD;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Puts a card in a new slot at the end of the board
+     */
+    public void addId(int id) {
+        int position = size++;
+        slots[position] = (byte) id;
+        place(id, position);
+        modCount++;
+        version++;
+
+        if (listener != null) {
+            listener.onSlotInserted(position);
+        }
+    }
+
+    /**
+     * Replaces the card in the given slot
+     */
+    public void replace(int position, int id) {
+        unplace(idAt(position));
+        slots[position] = (byte) id;
+        place(id, position);
+        version++;
+
+        if (listener != null) {
+            listener.onSlotChanged(position);
+        }
+    }
+
+    /**
+     * Removes the card in the given slot, moving the card from the last slot into it.
+     * When removing several slots, go from the highest slot down so the moved cards
+     * are never ones that are about to be removed.
+     */
+    public void removeAt(int position) {
+        unplace(idAt(position));
+        int last = size - 1;
+        if (position != last) {
+            int movedId = slots[last];
+            slots[position] = (byte) movedId;
+            slotOfId[movedId] = position;
+
+            if (listener != null) {
+                listener.onSlotChanged(position);
+            }
+        }
+        size = last;
+        modCount++;
+        version++;
+
+        if (listener != null) {
+            listener.onSlotRemoved(last);
+        }
+    }
+
+    @Override
+    public void clear() {
+        while (size > 0) {
+            removeAt(size - 1);
+        }
+    }
+
+    private void place(int id, int position) {
+        setCount += countSetsThrough(id);
+        slotOfId[id] = position;
+        if (id < 64) {
+            maskLow |= 1L << id;
+        } else {
+            maskHigh |= 1L << id;
+        }
+    }
+
+    private void unplace(int id) {
+        slotOfId[id] = NOT_ON_BOARD;
+        if (id < 64) {
+            maskLow &= ~(1L << id);
+        } else {
+            maskHigh &= ~(1L << id);
+        }
+        setCount -= countSetsThrough(id);
+    }
+
+    /**
+     * Counts the sets the given card would form with the other cards on the board.
+     * The card itself must not be marked as present.
+     */
+    private int countSetsThrough(int id) {
+        int pairs = 0;
+        for (int i = 0; i < size; i++) {
+            if (containsId(SetRules.thirdCard(id, slots[i]))) {
+                pairs++;
+            }
+        }
+        // Each set is seen from both of its other two cards
+        return pairs / 2;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.setcardgame;
+
+/**
+ * Turns the change between two game states into slot-level updates.
+ *
+ * Cards keep their identity (the card id), so a card replaced in its slot,
+ * a card moved from the last slot into a hole when the board is compacted,
+ * dealt cards and selection toggles each come out as the matching update.
+ * Updates are reported in order, each relative to the board as left by the
+ * ones before it, like RecyclerView's notifyItem* calls.
+ */
+public final class BoardDiff {
+    /**
+     * Receives the updates that turn the old board into the new one
+     */
+    public interface Callback {
+        /** A new card was put into the slot, shifting the later slots up */
+        void onInserted(int position);
+
+        /** The card in the slot went away, shifting the later slots down */
+        void onRemoved(int position);
+
+        /** The card at fromPosition moved to toPosition, shifting the slots in between */
+        void onMoved(int fromPosition, int toPosition);
+
+        /** The slot shows a different card (the selection is redrawn with it) */
+        void onCardChanged(int position);
+
+        /** The same card is still in the slot, but it was selected or deselected */
+        void onSelectionChanged(int position);
+    }
+
+    private BoardDiff() {}
+
+    /**
+     * Reports the updates from oldState's board to newState's board
+     */
+    public static void dispatch(GameState oldState, GameState newState, Callback callback) {
+        int newSize = newState.getBoardSize();
+        // The board as the updates so far have left it: card ids, and whether each was selected.
+        // Cards still waiting to be moved or removed can sit alongside the new ones.
+        int[] work = new int[oldState.getBoardSize() + newSize];
+        boolean[] workSelected = new boolean[work.length];
+        int size = oldState.getBoardSize();
+        for (int i = 0; i < size; i++) {
+            work[i] = oldState.idAt(i);
+            workSelected[i] = oldState.isSelected(i);
+        }
+
+        for (int i = 0; i < newSize; i++) {
+            int id = newState.idAt(i);
+            boolean selected = newState.isSelected(i);
+            if (i < size && work[i] == id) {
+                if (workSelected[i] != selected) {
+                    callback.onSelectionChanged(i);
+                }
+                continue;
+            }
+
+            int from = indexOf(work, size, id, i + 1);
+            if (from >= 0) {
+                // A card further along moved here; drop the card in its way first if it is gone
+                if (!newState.containsId(work[i])) {
+                    size = remove(work, workSelected, size, i);
+                    callback.onRemoved(i);
+                    from--;
+                }
+                boolean wasSelected = workSelected[from];
+                move(work, workSelected, from, i);
+                callback.onMoved(from, i);
+                if (wasSelected != selected) {
+                    workSelected[i] = selected;
+                    callback.onSelectionChanged(i);
+                }
+            } else if (i < size && !newState.containsId(work[i])) {
+                // A new card in place of one that is gone
+                work[i] = id;
+                workSelected[i] = selected;
+                callback.onCardChanged(i);
+            } else {
+                size = insert(work, workSelected, size, i, id, selected);
+                callback.onInserted(i);
+            }
+        }
+
+        // Whatever is left past the end of the new board went away
+        while (size > newSize) {
+            size--;
+            callback.onRemoved(size);
+        }
+    }
+
+    private static int indexOf(int[] ids, int size, int id, int from) {
+        for (int i = from; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int remove(int[] ids, boolean[] selected, int size, int position) {
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        System.arraycopy(selected, position + 1, selected, position, size - position - 1);
+        return size - 1;
+    }
+
+    private static int insert(int[] ids, boolean[] selected, int size, int position, int id, boolean isSelected) {
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(selected, position, selected, position + 1, size - position);
+        ids[position] = id;
+        selected[position] = isSelected;
+        return size + 1;
+    }
+
+    private static void move(int[] ids, boolean[] selected, int from, int to) {
+        int id = ids[from];
+        boolean isSelected = selected[from];
+        System.arraycopy(ids, to, ids, to + 1, from - to);
+        System.arraycopy(selected, to, selected, to + 1, from - to);
+        ids[to] = id;
+        selected[to] = isSelected;
+    }
+}
@@ -6,24 +6,31 @@ public class Card implements Serializable {
     public enum Color {
         RED, GREEN, PURPLE;
         
+        // values() clones its array on every call
+        private static final Color[] VALUES = values();
+        
         public static Color fromInt(int value) {
-            return Color.values()[value % 3];
+            return VALUES[value % 3];
         }
     }
     
     public enum Shape {
         DIAMOND, OVAL, SQUIGGLE;
         
+        private static final Shape[] VALUES = values();
+        
         public static Shape fromInt(int value) {
-            return Shape.values()[value % 3];
+            return VALUES[value % 3];
         }
     }
     
     public enum Shading {
         SOLID, STRIPED, OUTLINE;
         
+        private static final Shading[] VALUES = values();
+        
         public static Shading fromInt(int value) {
-            return Shading.values()[value % 3];
+            return VALUES[value % 3];
         }
     }
     
@@ -40,13 +47,20 @@ public class Card implements Serializable {
             return value;
         }
         
+        private static final Number[] VALUES = values();
+        
         public static Number fromInt(int value) {
-            switch (value % 3) {
-                case 0: return ONE;
-                case 1: return TWO;
-                case 2: return THREE;
-                default: return ONE;
-            }
+            return VALUES[value % 3];
+        }
+    }
+    
+    // One canonical instance per card, indexed by id
+    private static final Card[] CARDS = new Card[SetRules.CARD_COUNT];
+    
+    static {
+        for (int id = 0; id < CARDS.length; id++) {
+            CARDS[id] = new Card(Color.fromInt(id / 27), Shape.fromInt(id / 9),
+                    Shading.fromInt(id / 3), Number.fromInt(id));
         }
     }
     
@@ -56,7 +70,7 @@ public class Card implements Serializable {
     private final Number number;
     private final int id;
     
-    public Card(Color color, Shape shape, Shading shading, Number number) {
+    private Card(Color color, Shape shape, Shading shading, Number number) {
         this.color = color;
         this.shape = shape;
         this.shading = shading;
@@ -66,6 +80,20 @@ public class Card implements Serializable {
         this.id = color.ordinal() * 27 + shape.ordinal() * 9 + shading.ordinal() * 3 + number.ordinal();
     }
     
+    /**
+     * Returns the shared instance of the card with the given id (0-80)
+     */
+    public static Card of(int id) {
+        return CARDS[id];
+    }
+    
+    /**
+     * Returns the shared instance of the card with the given properties
+     */
+    public static Card of(Color color, Shape shape, Shading shading, Number number) {
+        return CARDS[color.ordinal() * 27 + shape.ordinal() * 9 + shading.ordinal() * 3 + number.ordinal()];
+    }
+    
     public Color getColor() {
         return color;
     }
@@ -91,22 +119,14 @@ public class Card implements Serializable {
      * A valid set requires all properties to be either all the same or all different
      */
     public static boolean isValidSet(Card card1, Card card2, Card card3) {
-        boolean colorValid = checkProperty(card1.color, card2.color, card3.color);
-        boolean shapeValid = checkProperty(card1.shape, card2.shape, card3.shape);
-        boolean shadingValid = checkProperty(card1.shading, card2.shading, card3.shading);
-        boolean numberValid = checkProperty(card1.number, card2.number, card3.number);
-        
-        return colorValid && shapeValid && shadingValid && numberValid;
+        return SetRules.isValidSet(card1.id, card2.id, card3.id);
     }
     
-    private static <T> boolean checkProperty(T prop1, T prop2, T prop3) {
-        // All three properties are the same
-        boolean allSame = prop1.equals(prop2) && prop2.equals(prop3);
-        
-        // All three properties are different
-        boolean allDifferent = !prop1.equals(prop2) && !prop2.equals(prop3) && !prop1.equals(prop3);
-        
-        return allSame || allDifferent;
+    /**
+     * Keeps deserialized cards canonical so identity comparison still holds
+     */
+    private Object readResolve() {
+        return of(id);
     }
     
     @Override
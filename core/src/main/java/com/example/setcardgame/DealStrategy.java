@@ -0,0 +1,20 @@
+package com.example.setcardgame;
+
+/**
+ * How the opening board of a game is dealt
+ */
+public enum DealStrategy {
+    /**
+     * Deal 12 cards and keep adding 3 while there is no set, as at the table.
+     * The opening board can grow to 15 or 18 cards.
+     */
+    ADD_CARDS,
+
+    /**
+     * Redraw the 12 opening cards until they hold a set (rejection sampling), then
+     * shuffle the rest of the deck. Every 12-card opening with a set is equally
+     * likely and the board always starts at 12 cards. About 3% of draws are
+     * rejected, and checking a draw costs O(n^2) through the board's set count.
+     */
+    RESHUFFLE
+}
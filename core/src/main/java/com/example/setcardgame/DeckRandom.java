@@ -0,0 +1,52 @@
+package com.example.setcardgame;
+
+/**
+ * Small seedable random generator (SplitMix64) for shuffling decks.
+ *
+ * The same seed always produces the same sequence, on every JVM and Android
+ * version, which makes deals reproducible. The state is a single long, so
+ * there is no CAS contention as with {@link java.util.Random} and reseeding
+ * allocates nothing. Not thread-safe; give each thread its own instance.
+ */
+public final class DeckRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public DeckRandom(long seed) {
+        this.state = seed;
+    }
+
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Returns the current state; passing it to {@link #setSeed(long)} resumes the sequence from here
+     */
+    public long getState() {
+        return state;
+    }
+
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a uniformly distributed int in [0, bound), bound > 0
+     */
+    public int nextInt(int bound) {
+        // Multiply-shift with rejection of the few biased low products (Lemire)
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & 0xFFFFFFFFL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.setcardgame;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+/**
+ * Runs a {@link GameModel} on its own thread.
+ *
+ * The model is only ever touched by the engine thread: moves are queued as
+ * commands and applied in order, and after each one an immutable
+ * {@link GameState} is published to the {@link Listener}. Listener and hint
+ * callbacks run on the callback executor given to the constructor, e.g. the
+ * main thread's handler in the app, or {@code Runnable::run} when bots and
+ * tests drive the engine headlessly. Every command also returns a
+ * {@link Future} so callers can wait for it. Along with each state the engine
+ * keeps its snapshot and move log, so the game can be saved without waiting
+ * for the engine thread. Whenever the board changes the engine also finds its
+ * sets, right after publishing the state, and keeps them by board version, so
+ * a hint is a lookup.
+ */
+public class GameEngine {
+    /**
+     * Receives every published state, in order, on the callback executor
+     */
+    public interface Listener {
+        void onStateChanged(GameState state);
+
+        /**
+         * Called by {@link #selectCardAndProcess(int)} when three selected cards were processed,
+         * before the resulting state is published
+         *
+         * @param slots   the three board slots, ascending
+         * @param cardIds the cards that were in those slots
+         * @param validSet whether they formed a set (and were replaced)
+         */
+        void onSelectionProcessed(int[] slots, int[] cardIds, boolean validSet);
+    }
+
+    /**
+     * Receives the sets on the board for a hint, packed as by {@link GameModel#findAllSets()}
+     */
+    public interface HintCallback {
+        void onHint(int[] sets);
+    }
+
+    /**
+     * Told whether a saved game could be restored; if not, the current game is unchanged
+     */
+    public interface RestoreCallback {
+        void onRestored(boolean restored);
+    }
+
+    private final GameModel gameModel;
+    private final Executor callbackExecutor;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "GameEngine");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Snapshot and move log bytes of one published state, kept together so they match
+     */
+    private static final class SavedGame {
+        final byte[] snapshot;
+        final byte[] moveLog;
+
+        SavedGame(byte[] snapshot, byte[] moveLog) {
+            this.snapshot = snapshot;
+            this.moveLog = moveLog;
+        }
+    }
+
+    private volatile Listener listener;
+    private volatile GameState state;
+    private volatile SavedGame savedGame;
+    private volatile long startTimeMillis;
+    // Sets on the board for hints and the board version they were found for; engine thread only
+    private int[] hintSets;
+    private int hintBoardVersion;
+
+    /**
+     * Takes over the given model; it must not be used directly afterwards
+     */
+    public GameEngine(GameModel gameModel, Executor callbackExecutor) {
+        this.gameModel = gameModel;
+        this.callbackExecutor = callbackExecutor;
+        // Nothing else runs on the model yet, so its first state can be taken here
+        state = gameModel.toState();
+        savedGame = save();
+        startTimeMillis = System.currentTimeMillis() - gameModel.getElapsedTimeMillis();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the most recently published state
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * Returns the game as of the most recently published state, encoded as by
+     * {@link GameModel#toSnapshot()} with the elapsed time brought up to now.
+     * Never waits for the engine thread, so it can be called from onSaveInstanceState.
+     */
+    public byte[] getSnapshot() {
+        return GameModel.withElapsedTime(savedGame.snapshot, System.currentTimeMillis() - startTimeMillis);
+    }
+
+    /**
+     * Returns the move log matching {@link #getSnapshot()}, or null if the game is not logged.
+     * Never waits for the engine thread.
+     */
+    public byte[] getMoveLog() {
+        return savedGame.moveLog;
+    }
+
+    public long getElapsedTimeSeconds() {
+        return (System.currentTimeMillis() - startTimeMillis) / 1000;
+    }
+
+    public Future<GameState> startNewGame() {
+        return submit(gameModel::startNewGame);
+    }
+
+    public Future<GameState> selectCard(int position) {
+        return submit(() -> gameModel.selectCard(position));
+    }
+
+    /**
+     * Selects or deselects a card, and if that makes three selected cards processes
+     * them straight away. The caller gets the outcome through
+     * {@link Listener#onSelectionProcessed(int[], int[], boolean)} and can show it while
+     * the next selection is already being made on the new board.
+     */
+    public Future<GameState> selectCardAndProcess(int position) {
+        return selectCardAndProcess(position, null);
+    }
+
+    /**
+     * Same as {@link #selectCardAndProcess(int)}, and passes the {@link System#nanoTime()} at which
+     * the engine started applying the tap to onAccepted, on the callback executor
+     */
+    public Future<GameState> selectCardAndProcess(int position, LongConsumer onAccepted) {
+        return submit(() -> {
+            if (onAccepted != null) {
+                long acceptedNanos = System.nanoTime();
+                callbackExecutor.execute(() -> onAccepted.accept(acceptedNanos));
+            }
+            if (!gameModel.selectCard(position) || gameModel.getSelectedCount() != 3) {
+                return;
+            }
+            int[] slots = new int[3];
+            int[] cardIds = new int[3];
+            int n = 0;
+            for (int slot = 0; n < 3; slot++) {
+                if (gameModel.isSelected(slot)) {
+                    slots[n] = slot;
+                    cardIds[n++] = gameModel.getBoard().idAt(slot);
+                }
+            }
+            boolean validSet = gameModel.isSelectedSetValid();
+            gameModel.processSelectedSet();
+            callbackExecutor.execute(() -> {
+                Listener current = listener;
+                if (current != null) {
+                    current.onSelectionProcessed(slots, cardIds, validSet);
+                }
+            });
+        });
+    }
+
+    public Future<GameState> processSelectedSet() {
+        return submit(gameModel::processSelectedSet);
+    }
+
+    public Future<GameState> clearSelectedCards() {
+        return submit(gameModel::clearSelectedCards);
+    }
+
+    public Future<GameState> addCards() {
+        return submit(gameModel::addCards);
+    }
+
+    public Future<GameState> setGameOver(boolean gameOver) {
+        return submit(() -> gameModel.setGameOver(gameOver));
+    }
+
+    public Future<GameState> restoreSnapshot(byte[] snapshot) {
+        return submit(() -> gameModel.restoreSnapshot(snapshot));
+    }
+
+    /**
+     * Restores a snapshot and carries on the move log saved with it (from {@link #getMoveLog()}),
+     * so the whole session stays replayable. A null or unreadable log keeps the current one.
+     * The callback is told on the callback executor whether the snapshot could be read.
+     */
+    public Future<GameState> restoreSnapshot(byte[] snapshot, byte[] moveLog, RestoreCallback callback) {
+        return submit(() -> {
+            MoveLog currentLog = gameModel.getMoveLog();
+            if (moveLog != null && currentLog != null) {
+                try {
+                    gameModel.setMoveLog(MoveLog.fromByteArray(moveLog));
+                } catch (RuntimeException e) {
+                    // Corrupt log: the restore is still recorded in the current one
+                }
+            }
+            boolean restored;
+            try {
+                // The snapshot is checked before the game changes
+                gameModel.restoreSnapshot(snapshot);
+                restored = true;
+            } catch (IllegalArgumentException e) {
+                gameModel.setMoveLog(currentLog);
+                restored = false;
+            }
+            boolean result = restored;
+            callbackExecutor.execute(() -> callback.onRestored(result));
+        });
+    }
+
+    /**
+     * Finds the sets on the board for a hint and records the hint in the move log
+     */
+    public Future<int[]> hint(HintCallback callback) {
+        return executor.submit(() -> {
+            updateHintSets();
+            int[] sets = hintSets;
+            if (sets.length > 0) {
+                gameModel.recordHint();
+                savedGame = save();
+            }
+            callbackExecutor.execute(() -> callback.onHint(sets));
+            return sets;
+        });
+    }
+
+    /**
+     * Encodes the game as by {@link GameModel#toSnapshot()}, after all queued commands
+     */
+    public Future<byte[]> toSnapshot() {
+        return executor.submit(gameModel::toSnapshot);
+    }
+
+    /**
+     * Stops the engine thread; queued commands that have not started are dropped
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Future<GameState> submit(Runnable command) {
+        return executor.submit((Callable<GameState>) () -> {
+            command.run();
+            return publish();
+        });
+    }
+
+    private GameState publish() {
+        GameState published = gameModel.toState();
+        state = published;
+        savedGame = save();
+        startTimeMillis = System.currentTimeMillis() - gameModel.getElapsedTimeMillis();
+        callbackExecutor.execute(() -> {
+            Listener current = listener;
+            if (current != null) {
+                current.onStateChanged(published);
+            }
+        });
+        // Ready for the next hint while the new state is being shown
+        updateHintSets();
+        return published;
+    }
+
+    private void updateHintSets() {
+        int boardVersion = gameModel.getBoardVersion();
+        if (hintSets == null || boardVersion != hintBoardVersion) {
+            hintSets = gameModel.findAllSets();
+            hintBoardVersion = boardVersion;
+        }
+    }
+
+    private SavedGame save() {
+        MoveLog moveLog = gameModel.getMoveLog();
+        return new SavedGame(gameModel.toSnapshot(), moveLog != null ? moveLog.toByteArray() : null);
+    }
+}
@@ -0,0 +1,697 @@
+package com.example.setcardgame;
+
+import com.example.setcardgame.Card;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class GameModel {
+    /**
+     * Notified for every board slot whose selected state changes
+     */
+    public interface SelectionListener {
+        void onSelectionChanged(int position, boolean selected);
+    }
+    
+    private static final int INITIAL_BOARD_SIZE = 12;
+    private static final int ADD_CARDS_COUNT = 3;
+    
+    private static final byte SNAPSHOT_FORMAT = 1;
+    private static final int SNAPSHOT_FLAG_GAME_OVER = 1;
+    private static final int SNAPSHOT_FLAG_RESHUFFLE = 2;
+    // Format, flags, score, elapsed millis, game seed, seed generator state,
+    // then one count byte each for the deck, board and selection
+    private static final int SNAPSHOT_HEADER_SIZE = 1 + 1 + 4 + 8 + 8 + 8 + 3;
+    // Elapsed time comes after the format, flags and score
+    private static final int SNAPSHOT_ELAPSED_OFFSET = 1 + 1 + 4;
+    
+    // Card ids in deal order; everything before deckPosition has been dealt
+    // Shared with the states taken by toState(), so once shared it is replaced rather than changed
+    private byte[] deck = new byte[SetRules.CARD_COUNT];
+    private boolean deckShared;
+    private int deckPosition;
+    private final Board board = new Board();
+    // Selected board slots as a bitmask; the board never has more than 21 slots
+    private int selectionMask;
+    private int selectedCount;
+    private SelectionListener selectionListener;
+    private int score;
+    private long startTimeMillis;
+    private boolean gameOver;
+    
+    // Hands out one seed per game; the deck of each game is shuffled from its own seed
+    private final DeckRandom gameSeeds;
+    private final DeckRandom shuffleRandom = new DeckRandom(0);
+    private long gameSeed;
+    private DealStrategy dealStrategy = DealStrategy.ADD_CARDS;
+    private MoveLog moveLog;
+    
+    public GameModel() {
+        this(System.nanoTime() ^ System.identityHashCode(new Object()));
+    }
+    
+    /**
+     * Creates a game whose deals are fully determined by the seed:
+     * the same seed always gives the same sequence of games
+     */
+    public GameModel(long seed) {
+        score = 0;
+        gameOver = false;
+        gameSeeds = new DeckRandom(seed);
+        
+        startTimeMillis = System.currentTimeMillis();
+        
+        // Unshuffled until a game starts
+        for (int id = 0; id < deck.length; id++) {
+            deck[id] = (byte) id;
+        }
+    }
+    
+    private void initializeDeck(long seed) {
+        unshareDeck();
+        gameSeed = seed;
+        shuffleRandom.setSeed(seed);
+        
+        // All 81 unique cards (3^4 combinations), by id
+        for (int id = 0; id < deck.length; id++) {
+            deck[id] = (byte) id;
+        }
+        deckPosition = 0;
+    }
+    
+    /**
+     * Fills deck positions [from, to) in place with cards drawn uniformly from
+     * positions [i, deck.length) (Fisher-Yates, front to back). Shuffling a prefix
+     * first and the rest later still gives a uniformly shuffled deck.
+     */
+    private void shuffleDeck(int from, int to) {
+        for (int i = from; i < to; i++) {
+            int j = i + shuffleRandom.nextInt(deck.length - i);
+            byte swap = deck[i];
+            deck[i] = deck[j];
+            deck[j] = swap;
+        }
+    }
+    
+    /**
+     * Gives the model its own copy of the deck before it is changed, if states still use it
+     */
+    private void unshareDeck() {
+        if (deckShared) {
+            deck = deck.clone();
+            deckShared = false;
+        }
+    }
+    
+    private boolean isDeckEmpty() {
+        return deckPosition >= deck.length;
+    }
+    
+    private int drawCardId() {
+        return deck[deckPosition++];
+    }
+    
+    public void startNewGame() {
+        startNewGame(gameSeeds.nextLong());
+    }
+    
+    /**
+     * Starts a new game whose deck is shuffled from the given seed, so it can be replayed.
+     * See {@link #getGameSeed()}.
+     */
+    public void startNewGame(long seed) {
+        if (moveLog != null) {
+            // Replay and verification only need the current game
+            moveLog.clear();
+            moveLog.appendStart(seed, dealStrategy);
+        }
+        initializeDeck(seed);
+        resetGame();
+        
+        // Deal initial cards
+        if (dealStrategy == DealStrategy.RESHUFFLE) {
+            // Only the opening cards are drawn until they hold a set, then the rest is shuffled
+            do {
+                board.clear();
+                deckPosition = 0;
+                shuffleDeck(0, INITIAL_BOARD_SIZE);
+                dealCards(INITIAL_BOARD_SIZE);
+            } while (!hasValidSet());
+            shuffleDeck(INITIAL_BOARD_SIZE, deck.length);
+        } else {
+            shuffleDeck(0, deck.length);
+            dealCards(INITIAL_BOARD_SIZE);
+        }
+        
+        // Make sure there's at least one valid set on the board
+        ensureValidSetExists();
+    }
+    
+    /**
+     * Chooses how the opening board of the following games is dealt
+     */
+    public void setDealStrategy(DealStrategy dealStrategy) {
+        this.dealStrategy = dealStrategy;
+    }
+    
+    public DealStrategy getDealStrategy() {
+        return dealStrategy;
+    }
+    
+    /**
+     * Starts a new game with the given cards laid out on the board, in that order.
+     * The rest of the deck is shuffled as usual. The board is dealt as given, even
+     * if it holds no set, which makes this useful for puzzles and benchmarks.
+     */
+    public void startNewGame(int[] openingCardIds) {
+        startNewGame(gameSeeds.nextLong(), openingCardIds);
+    }
+    
+    /**
+     * Starts a new game with the given opening cards, the rest of the deck shuffled from the seed
+     */
+    void startNewGame(long seed, int[] openingCardIds) {
+        // Check the cards before anything changes, so a bad layout leaves the game and the log as they were
+        if (openingCardIds.length > SetRules.MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Too many opening cards: " + openingCardIds.length);
+        }
+        boolean[] seen = new boolean[SetRules.CARD_COUNT];
+        for (int id : openingCardIds) {
+            if (id < 0 || id >= SetRules.CARD_COUNT || seen[id]) {
+                throw new IllegalArgumentException("Invalid or repeated card id: " + id);
+            }
+            seen[id] = true;
+        }
+        
+        if (moveLog != null) {
+            moveLog.clear();
+            moveLog.appendPreset(seed, openingCardIds);
+        }
+        initializeDeck(seed);
+        shuffleDeck(0, deck.length);
+        
+        // Move the opening cards to the front of the deck
+        for (int i = 0; i < openingCardIds.length; i++) {
+            int from = i;
+            while (deck[from] != openingCardIds[i]) {
+                from++;
+            }
+            deck[from] = deck[i];
+            deck[i] = (byte) openingCardIds[i];
+        }
+        
+        resetGame();
+        dealCards(openingCardIds.length);
+        checkGameOver();
+    }
+    
+    private void resetGame() {
+        clearSelection();
+        board.clear();
+        score = 0;
+        gameOver = false;
+        startTimeMillis = System.currentTimeMillis();
+    }
+    
+    private void dealCards(int count) {
+        for (int i = 0; i < count && !isDeckEmpty(); i++) {
+            board.addId(drawCardId());
+        }
+    }
+    
+    public boolean addCards() {
+        if (isDeckEmpty() || board.size() >= SetRules.MAX_BOARD_SIZE) {
+            return false;
+        }
+        
+        if (moveLog != null) {
+            moveLog.append(MoveLog.ADD_CARDS);
+        }
+        dealCards(ADD_CARDS_COUNT);
+        return true;
+    }
+    
+    public boolean selectCard(int position) {
+        if (position < 0 || position >= board.size()) {
+            return false;
+        }
+        
+        // If card is already selected, deselect it (only if we haven't selected 3 cards yet)
+        if (isSelected(position)) {
+            // Only allow deselection if we don't have 3 cards yet (prevent changing while validating)
+            if (selectedCount < 3) {
+                recordSelect(position);
+                setSelected(position, false);
+                return true;
+            }
+            return false;
+        } 
+        // Only allow selection of new cards if we haven't reached 3 cards yet
+        else if (selectedCount < 3) {
+            recordSelect(position);
+            setSelected(position, true);
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Clears the selected cards without processing them
+     */
+    public void clearSelectedCards() {
+        if (moveLog != null) {
+            moveLog.append(MoveLog.CLEAR);
+        }
+        clearSelection();
+    }
+    
+    private void clearSelection() {
+        for (int slot = nextSelectedSlot(0); slot != -1; slot = nextSelectedSlot(slot + 1)) {
+            setSelected(slot, false);
+        }
+    }
+    
+    /**
+     * Checks if the card in the given board slot is selected
+     */
+    public boolean isSelected(int position) {
+        if (position < 0 || position >= SetRules.MAX_BOARD_SIZE) {
+            return false;
+        }
+        return (selectionMask & (1 << position)) != 0;
+    }
+    
+    private void recordSelect(int position) {
+        if (moveLog != null) {
+            moveLog.appendSelect(position);
+        }
+    }
+    
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+    
+    public void setSelectionListener(SelectionListener selectionListener) {
+        this.selectionListener = selectionListener;
+    }
+    
+    private void setSelected(int position, boolean selected) {
+        int bit = 1 << position;
+        selectionMask = selected ? selectionMask | bit : selectionMask & ~bit;
+        selectedCount += selected ? 1 : -1;
+        
+        if (selectionListener != null) {
+            selectionListener.onSelectionChanged(position, selected);
+        }
+    }
+    
+    /**
+     * Returns the first selected slot at or after fromSlot, or -1 if there is none
+     */
+    private int nextSelectedSlot(int fromSlot) {
+        int word = selectionMask & (-1 << fromSlot);
+        return word != 0 ? Integer.numberOfTrailingZeros(word) : -1;
+    }
+    
+    public void processSelectedSet() {
+        if (selectedCount != 3) {
+            return;
+        }
+        if (moveLog != null) {
+            moveLog.append(MoveLog.PROCESS);
+        }
+        
+        if (isSelectedSetValid()) {
+            // Valid set found - increase score based on sets found
+            score++; // Each set found adds one to the score
+            
+            int first = nextSelectedSlot(0);
+            int second = nextSelectedSlot(first + 1);
+            int third = nextSelectedSlot(second + 1);
+            
+            // Clear the selection before the slots change underneath it
+            clearSelection();
+            
+            // Replace each selected card in the same position, or remove it once the deck is empty.
+            // Removal fills the slot from the end of the board, so go from the last slot down.
+            replaceOrRemove(third);
+            replaceOrRemove(second);
+            replaceOrRemove(first);
+            
+            // Check if game is over
+            checkGameOver();
+        }
+        
+        // Clear the selected cards
+        clearSelection();
+    }
+    
+    private void replaceOrRemove(int position) {
+        if (!isDeckEmpty()) {
+            board.replace(position, drawCardId());
+        } else {
+            board.removeAt(position);
+        }
+    }
+    
+    /**
+     * Checks if the three selected cards form a valid set
+     */
+    public boolean isSelectedSetValid() {
+        if (selectedCount != 3) {
+            return false;
+        }
+        
+        int first = nextSelectedSlot(0);
+        int second = nextSelectedSlot(first + 1);
+        int third = nextSelectedSlot(second + 1);
+        return SetRules.isValidSet(board.idAt(first), board.idAt(second), board.idAt(third));
+    }
+    
+    private void ensureValidSetExists() {
+        // Part of the opening deal, which replays from the seed, so not logged as added cards.
+        // A full board always holds a set.
+        while (!hasValidSet() && !isDeckEmpty() && board.size() < SetRules.MAX_BOARD_SIZE) {
+            dealCards(ADD_CARDS_COUNT);
+        }
+        
+        // If still no valid set and deck is empty, game is over
+        if (!hasValidSet() && isDeckEmpty()) {
+            gameOver = true;
+        }
+    }
+    
+    public boolean hasValidSet() {
+        // The board keeps its set count up to date as cards are dealt and removed
+        return board.getSetCount() > 0;
+    }
+    
+    public List<Integer> findValidSet() {
+        int size = board.size();
+        List<Integer> setIndices = new ArrayList<>();
+        
+        for (int i = 0; i < size - 1; i++) {
+            int id1 = board.idAt(i);
+            for (int j = i + 1; j < size; j++) {
+                int third = SetRules.thirdCard(id1, board.idAt(j));
+                // Require k > j so the first set in (i, j, k) order is returned
+                if (board.containsId(third) && board.slotOf(third) > j) {
+                    setIndices.add(i);
+                    setIndices.add(j);
+                    setIndices.add(board.slotOf(third));
+                    return setIndices;
+                }
+            }
+        }
+        
+        return setIndices; // Empty if no set found
+    }
+    
+    /**
+     * Counts the valid sets on the current board
+     */
+    public int countSets() {
+        return board.getSetCount();
+    }
+    
+    /**
+     * Returns every valid set on the current board, each packed into one int
+     * as three ascending slots of 8 bits each (see {@link #setSlot(int, int)})
+     */
+    public int[] findAllSets() {
+        return board.findAllSets();
+    }
+    
+    /**
+     * Returns slot n (0, 1 or 2) of a set packed by {@link #findAllSets()}
+     */
+    public static int setSlot(int packedSet, int n) {
+        return (packedSet >>> (8 * n)) & 0xFF;
+    }
+    
+    /**
+     * Counts the sets that can still be found this game, i.e. the sets made only of
+     * cards on the board or still in the deck. When this is zero the game cannot
+     * score again, however many cards are dealt.
+     */
+    public int countAchievableSets() {
+        long maskLow = board.getMaskLow();
+        long maskHigh = board.getMaskHigh();
+        for (int i = deckPosition; i < deck.length; i++) {
+            int id = deck[i];
+            if (id < 64) {
+                maskLow |= 1L << id;
+            } else {
+                maskHigh |= 1L << id;
+            }
+        }
+        return SetCatalogue.countContained(maskLow, maskHigh);
+    }
+    
+    private void checkGameOver() {
+        // Game is over if deck is empty and there are no valid sets on the board
+        if (isDeckEmpty() && !hasValidSet()) {
+            gameOver = true;
+        }
+    }
+    
+    public Board getBoard() {
+        return board;
+    }
+    
+    /**
+     * Returns a number that changes whenever a card on the board changes
+     */
+    public int getBoardVersion() {
+        return board.getVersion();
+    }
+    
+    public void setBoardListener(Board.Listener boardListener) {
+        board.setListener(boardListener);
+    }
+    
+    /**
+     * Returns a copy of the selected cards in board order
+     */
+    public List<Card> getSelectedCards() {
+        List<Card> selectedCards = new ArrayList<>(selectedCount);
+        for (int slot = nextSelectedSlot(0); slot != -1; slot = nextSelectedSlot(slot + 1)) {
+            selectedCards.add(board.get(slot));
+        }
+        return selectedCards;
+    }
+    
+    /**
+     * Returns the seed the current game's deck was shuffled from
+     */
+    public long getGameSeed() {
+        return gameSeed;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getRemainingCards() {
+        return deck.length - deckPosition;
+    }
+    
+    public boolean isGameOver() {
+        return gameOver;
+    }
+    
+    /**
+     * Manually set the game over state
+     */
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+    
+    /**
+     * Returns an immutable copy of the current game position.
+     * Moves on the returned state do not affect this model.
+     */
+    public GameState toState() {
+        // Cards are only drawn from the deck during a game, so the state can share it
+        deckShared = true;
+        return GameState.of(deck, deckPosition, board, selectionMask, selectedCount, score, gameOver);
+    }
+    
+    /**
+     * Puts the game back into the given position, e.g. to undo moves.
+     * Listeners are told about every board and selection change, and the move log
+     * records the position as a RESTORE event so it can still be replayed.
+     */
+    public void restoreState(GameState state) {
+        clearSelection();
+        board.clear();
+        byte[] remaining = state.remainingDeck();
+        unshareDeck();
+        deckPosition = deck.length - remaining.length;
+        System.arraycopy(remaining, 0, deck, deckPosition, remaining.length);
+        for (int i = 0; i < state.getBoardSize(); i++) {
+            board.addId(state.idAt(i));
+        }
+        for (int slot = 0; slot < state.getBoardSize(); slot++) {
+            if (state.isSelected(slot)) {
+                setSelected(slot, true);
+            }
+        }
+        score = state.getScore();
+        gameOver = state.isGameOver();
+        if (moveLog != null) {
+            moveLog.appendRestore(toSnapshot());
+        }
+    }
+    
+    /**
+     * Records every following move (new games, selections, sets and added cards) in the
+     * given log, or stops recording if it is null. Each new game clears the log first.
+     * See {@link MoveLogReplayer}.
+     */
+    public void setMoveLog(MoveLog moveLog) {
+        this.moveLog = moveLog;
+    }
+    
+    public MoveLog getMoveLog() {
+        return moveLog;
+    }
+    
+    /**
+     * Records in the move log that a hint was shown; the game itself does not change
+     */
+    public void recordHint() {
+        if (moveLog != null) {
+            moveLog.append(MoveLog.HINT);
+        }
+    }
+    
+    /**
+     * Encodes the whole game (remaining deck order, board, selection, score, elapsed time
+     * and seeds) into a compact byte array of at most 117 bytes
+     */
+    public byte[] toSnapshot() {
+        int remaining = deck.length - deckPosition;
+        int boardSize = board.size();
+        ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE + remaining + boardSize + selectedCount);
+        
+        int flags = (gameOver ? SNAPSHOT_FLAG_GAME_OVER : 0)
+                | (dealStrategy == DealStrategy.RESHUFFLE ? SNAPSHOT_FLAG_RESHUFFLE : 0);
+        buffer.put(SNAPSHOT_FORMAT);
+        buffer.put((byte) flags);
+        buffer.putInt(score);
+        buffer.putLong(System.currentTimeMillis() - startTimeMillis);
+        buffer.putLong(gameSeed);
+        buffer.putLong(gameSeeds.getState());
+        
+        buffer.put((byte) remaining);
+        buffer.put(deck, deckPosition, remaining);
+        buffer.put((byte) boardSize);
+        for (int i = 0; i < boardSize; i++) {
+            buffer.put((byte) board.idAt(i));
+        }
+        buffer.put((byte) selectedCount);
+        for (int slot = nextSelectedSlot(0); slot != -1; slot = nextSelectedSlot(slot + 1)) {
+            buffer.put((byte) slot);
+        }
+        return buffer.array();
+    }
+    
+    /**
+     * Returns a copy of a snapshot taken by {@link #toSnapshot()} with its elapsed time replaced
+     */
+    static byte[] withElapsedTime(byte[] snapshot, long elapsedMillis) {
+        byte[] copy = snapshot.clone();
+        ByteBuffer.wrap(copy).putLong(SNAPSHOT_ELAPSED_OFFSET, elapsedMillis);
+        return copy;
+    }
+    
+    /**
+     * Replaces the current game with one saved by {@link #toSnapshot()}.
+     * Listeners are kept and told about every board and selection change, and the
+     * move log records the snapshot as a RESTORE event.
+     *
+     * @throws IllegalArgumentException if the snapshot is not a valid game
+     */
+    public void restoreSnapshot(byte[] snapshot) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            if (buffer.get() != SNAPSHOT_FORMAT) {
+                throw new IllegalArgumentException("Unknown snapshot format");
+            }
+            int flags = buffer.get();
+            int savedScore = buffer.getInt();
+            long elapsedMillis = buffer.getLong();
+            long savedGameSeed = buffer.getLong();
+            long seedState = buffer.getLong();
+            
+            int remaining = buffer.get();
+            if (remaining < 0 || remaining > deck.length) {
+                throw new IllegalArgumentException("Invalid deck size: " + remaining);
+            }
+            byte[] savedDeck = new byte[remaining];
+            buffer.get(savedDeck);
+            byte[] savedBoard = new byte[buffer.get()];
+            if (savedBoard.length > SetRules.MAX_BOARD_SIZE) {
+                throw new IllegalArgumentException("Invalid board size: " + savedBoard.length);
+            }
+            buffer.get(savedBoard);
+            byte[] savedSelection = new byte[buffer.get()];
+            buffer.get(savedSelection);
+            
+            // Every card must be in at most one place
+            boolean[] seen = new boolean[SetRules.CARD_COUNT];
+            for (byte[] ids : new byte[][] {savedDeck, savedBoard}) {
+                for (byte id : ids) {
+                    if (id < 0 || id >= SetRules.CARD_COUNT || seen[id]) {
+                        throw new IllegalArgumentException("Invalid or repeated card id: " + id);
+                    }
+                    seen[id] = true;
+                }
+            }
+            for (byte slot : savedSelection) {
+                if (slot < 0 || slot >= savedBoard.length) {
+                    throw new IllegalArgumentException("Invalid selected slot: " + slot);
+                }
+            }
+            
+            clearSelection();
+            board.clear();
+            unshareDeck();
+            deckPosition = deck.length - remaining;
+            System.arraycopy(savedDeck, 0, deck, deckPosition, remaining);
+            for (byte id : savedBoard) {
+                board.addId(id);
+            }
+            for (byte slot : savedSelection) {
+                if (!isSelected(slot) && selectedCount < 3) {
+                    setSelected(slot, true);
+                }
+            }
+            
+            score = savedScore;
+            gameOver = (flags & SNAPSHOT_FLAG_GAME_OVER) != 0;
+            dealStrategy = (flags & SNAPSHOT_FLAG_RESHUFFLE) != 0 ? DealStrategy.RESHUFFLE : DealStrategy.ADD_CARDS;
+            startTimeMillis = System.currentTimeMillis() - elapsedMillis;
+            gameSeed = savedGameSeed;
+            gameSeeds.setSeed(seedState);
+            if (moveLog != null) {
+                moveLog.appendRestore(snapshot);
+            }
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Truncated snapshot", e);
+        }
+    }
+    
+    public long getElapsedTimeSeconds() {
+        return getElapsedTimeMillis() / 1000;
+    }
+    
+    public long getElapsedTimeMillis() {
+        return System.currentTimeMillis() - startTimeMillis;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,327 @@
+package com.example.setcardgame;
+
+import java.util.Arrays;
+
+/**
+ * An immutable game position: deck, board, selection and score.
+ *
+ * {@link #selectCard(int)}, {@link #processSelectedSet()} and {@link #addCards()}
+ * follow the same rules as {@link GameModel} but return a new state and leave
+ * this one untouched. The states of one game share the deck array with each
+ * other and with the model they came from (which replaces the array rather
+ * than changing it); only the board slots and the slot of each card id (21 and
+ * 81 bytes) are copied when cards change, card presence is an 81-bit mask and
+ * the selection a 21-bit one. Keeping old states around is therefore
+ * cheap, which makes undo/redo a matter of holding on to references and lets
+ * hint and bot code try out moves without copying a {@link GameModel}.
+ */
+public final class GameState {
+    private static final byte NOT_ON_BOARD = -1;
+
+    // Cards in deal order, shared by every state of the game; never modified
+    private final byte[] deck;
+    private final int deckPosition;
+    // Card ids by board slot, exactly as long as the board
+    private final byte[] slots;
+    // Board slot by card id, or NOT_ON_BOARD
+    private final byte[] slotOfId;
+    private final long boardMaskLow;
+    private final long boardMaskHigh;
+    private final int setCount;
+    // Selected board slots as a bitmask
+    private final int selectionMask;
+    private final int selectedCount;
+    private final int score;
+    private final boolean gameOver;
+
+    private GameState(byte[] deck, int deckPosition, byte[] slots, byte[] slotOfId, long boardMaskLow,
+                      long boardMaskHigh, int setCount, int selectionMask, int selectedCount, int score,
+                      boolean gameOver) {
+        this.deck = deck;
+        this.deckPosition = deckPosition;
+        this.slots = slots;
+        this.slotOfId = slotOfId;
+        this.boardMaskLow = boardMaskLow;
+        this.boardMaskHigh = boardMaskHigh;
+        this.setCount = setCount;
+        this.selectionMask = selectionMask;
+        this.selectedCount = selectedCount;
+        this.score = score;
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * Creates a state from the deck (in deal order) with the position of its next card,
+     * the board and the selected slots. The deck is shared, so it must never be changed afterwards.
+     */
+    static GameState of(byte[] deck, int deckPosition, Board board, int selectionMask, int selectedCount,
+                        int score, boolean gameOver) {
+        byte[] slots = new byte[board.size()];
+        byte[] slotOfId = new byte[SetRules.CARD_COUNT];
+        Arrays.fill(slotOfId, NOT_ON_BOARD);
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = (byte) board.idAt(i);
+            slotOfId[slots[i]] = (byte) i;
+        }
+        return new GameState(deck, deckPosition, slots, slotOfId, board.getMaskLow(), board.getMaskHigh(),
+                board.getSetCount(), selectionMask, selectedCount, score, gameOver);
+    }
+
+    public int getBoardSize() {
+        return slots.length;
+    }
+
+    public int idAt(int position) {
+        return slots[position];
+    }
+
+    public Card cardAt(int position) {
+        return Card.of(slots[position]);
+    }
+
+    public boolean containsId(int id) {
+        long word = id < 64 ? boardMaskLow : boardMaskHigh;
+        return (word & (1L << id)) != 0;
+    }
+
+    /**
+     * Returns the card ids on the board by slot
+     */
+    public int[] toIdArray() {
+        int[] ids = new int[slots.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = slots[i];
+        }
+        return ids;
+    }
+
+    public boolean isSelected(int position) {
+        if (position < 0 || position >= SetRules.MAX_BOARD_SIZE) {
+            return false;
+        }
+        return (selectionMask & (1 << position)) != 0;
+    }
+
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getRemainingCards() {
+        return deck.length - deckPosition;
+    }
+
+    /**
+     * Returns the card ids still in the deck, in the order they will be dealt
+     */
+    byte[] remainingDeck() {
+        return Arrays.copyOfRange(deck, deckPosition, deck.length);
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean hasValidSet() {
+        return setCount > 0;
+    }
+
+    public int countSets() {
+        return setCount;
+    }
+
+    /**
+     * Returns every valid set on the board, packed as by {@link GameModel#findAllSets()}
+     */
+    public int[] findAllSets() {
+        int[] sets = new int[setCount];
+        int count = 0;
+
+        for (int i = 0; i < slots.length - 1 && count < sets.length; i++) {
+            int id1 = slots[i];
+            for (int j = i + 1; j < slots.length; j++) {
+                int k = slotOfId[SetRules.thirdCard(id1, slots[j])];
+                if (k > j) {
+                    sets[count++] = i | (j << 8) | (k << 16);
+                }
+            }
+        }
+
+        return sets;
+    }
+
+    /**
+     * Returns the state with the card in the given slot selected or deselected,
+     * or this state if that is not allowed (see {@link GameModel#selectCard(int)})
+     */
+    public GameState selectCard(int position) {
+        if (position < 0 || position >= slots.length) {
+            return this;
+        }
+
+        boolean selected = isSelected(position);
+        if (selectedCount >= 3) {
+            return this;
+        }
+
+        return new GameState(deck, deckPosition, slots, slotOfId, boardMaskLow, boardMaskHigh, setCount,
+                selectionMask ^ (1 << position), selected ? selectedCount - 1 : selectedCount + 1, score, gameOver);
+    }
+
+    /**
+     * Returns the state with nothing selected
+     */
+    public GameState clearSelection() {
+        if (selectedCount == 0) {
+            return this;
+        }
+        return new GameState(deck, deckPosition, slots, slotOfId, boardMaskLow, boardMaskHigh, setCount,
+                0, 0, score, gameOver);
+    }
+
+    public boolean isSelectedSetValid() {
+        if (selectedCount != 3) {
+            return false;
+        }
+        int first = nextSelectedSlot(0);
+        int second = nextSelectedSlot(first + 1);
+        int third = nextSelectedSlot(second + 1);
+        return SetRules.isValidSet(slots[first], slots[second], slots[third]);
+    }
+
+    /**
+     * Returns the state after the three selected cards are processed: if they form a set
+     * the score goes up and they are replaced from the deck (or removed once it is empty).
+     * The selection is cleared either way. Returns this state if fewer than three cards are selected.
+     */
+    public GameState processSelectedSet() {
+        if (selectedCount != 3) {
+            return this;
+        }
+        if (!isSelectedSetValid()) {
+            return clearSelection();
+        }
+
+        int first = nextSelectedSlot(0);
+        int second = nextSelectedSlot(first + 1);
+        int third = nextSelectedSlot(second + 1);
+
+        Builder builder = new Builder(this);
+        // Removal fills the slot from the end of the board, so go from the last slot down
+        builder.replaceOrRemove(third);
+        builder.replaceOrRemove(second);
+        builder.replaceOrRemove(first);
+
+        boolean deckEmpty = builder.deckPosition >= deck.length;
+        return builder.build(0, 0, score + 1, gameOver || (deckEmpty && builder.setCount == 0));
+    }
+
+    /**
+     * Returns the state with three more cards dealt, or this state if the deck is empty
+     * or the board already holds {@link SetRules#MAX_BOARD_SIZE} cards
+     */
+    public GameState addCards() {
+        if (deckPosition >= deck.length || slots.length >= SetRules.MAX_BOARD_SIZE) {
+            return this;
+        }
+
+        Builder builder = new Builder(this);
+        for (int i = 0; i < 3 && builder.deckPosition < deck.length; i++) {
+            builder.add(deck[builder.deckPosition++]);
+        }
+        // Selected slots are unchanged, so the selection carries over
+        return builder.build(selectionMask, selectedCount, score, gameOver);
+    }
+
+    private int nextSelectedSlot(int fromSlot) {
+        int word = selectionMask & (-1 << fromSlot);
+        return word != 0 ? Integer.numberOfTrailingZeros(word) : -1;
+    }
+
+    /**
+     * Copies the board of a state once and applies several card changes to the copy
+     */
+    private static final class Builder {
+        final byte[] deck;
+        int deckPosition;
+        byte[] slots;
+        final byte[] slotOfId;
+        int size;
+        long maskLow;
+        long maskHigh;
+        int setCount;
+
+        Builder(GameState state) {
+            deck = state.deck;
+            deckPosition = state.deckPosition;
+            size = state.slots.length;
+            // Room for a full deal of three more cards
+            slots = Arrays.copyOf(state.slots, size + 3);
+            slotOfId = state.slotOfId.clone();
+            maskLow = state.boardMaskLow;
+            maskHigh = state.boardMaskHigh;
+            setCount = state.setCount;
+        }
+
+        void add(int id) {
+            slotOfId[id] = (byte) size;
+            slots[size++] = (byte) id;
+            place(id);
+        }
+
+        void replaceOrRemove(int position) {
+            unplace(slots[position]);
+            slotOfId[slots[position]] = NOT_ON_BOARD;
+            if (deckPosition < deck.length) {
+                int id = deck[deckPosition++];
+                slots[position] = (byte) id;
+                slotOfId[id] = (byte) position;
+                place(id);
+            } else {
+                slots[position] = slots[--size];
+                if (position < size) {
+                    slotOfId[slots[position]] = (byte) position;
+                }
+            }
+        }
+
+        GameState build(int selectionMask, int selectedCount, int score, boolean gameOver) {
+            return new GameState(deck, deckPosition, Arrays.copyOf(slots, size), slotOfId, maskLow, maskHigh,
+                    setCount, selectionMask, selectedCount, score, gameOver);
+        }
+
+        private void place(int id) {
+            setCount += countSetsThrough(id);
+            if (id < 64) {
+                maskLow |= 1L << id;
+            } else {
+                maskHigh |= 1L << id;
+            }
+        }
+
+        private void unplace(int id) {
+            if (id < 64) {
+                maskLow &= ~(1L << id);
+            } else {
+                maskHigh &= ~(1L << id);
+            }
+            setCount -= countSetsThrough(id);
+        }
+
+        // The card itself must not be marked as present
+        private int countSetsThrough(int id) {
+            int pairs = 0;
+            for (int i = 0; i < size; i++) {
+                int third = SetRules.thirdCard(id, slots[i]);
+                long word = third < 64 ? maskLow : maskHigh;
+                if ((word & (1L << third)) != 0) {
+                    pairs++;
+                }
+            }
+            return pairs / 2;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.setcardgame;
+
+import java.util.Arrays;
+
+/**
+ * Append-only record of everything that happened in the current game,
+ * compactly encoded.
+ *
+ * Each event is a type byte, the milliseconds since the previous event as a
+ * varint (from a monotonic clock), then its payload: the seed and deal
+ * strategy of a new game, the opening cards of a preset game, the slot of a
+ * selection, or the snapshot a restored game continues from. Most events take
+ * 2-3 bytes, so a whole game fits in a few hundred bytes. Attach a log with
+ * {@link GameModel#setMoveLog(MoveLog)} and rebuild any intermediate state
+ * with {@link MoveLogReplayer}. The model clears the log whenever a new game
+ * starts, so it never holds more than one game.
+ */
+public class MoveLog {
+    /** A new game shuffled from a seed: 8-byte seed, 1-byte deal strategy */
+    public static final int START = 0;
+    /** A new game with given opening cards: 8-byte seed, 1-byte count, card ids */
+    public static final int PRESET = 1;
+    /** The card in a slot was selected or deselected: 1-byte slot */
+    public static final int SELECT = 2;
+    /** The selection was cleared without being processed */
+    public static final int CLEAR = 3;
+    /** The selected cards were processed (a set was found if they were valid) */
+    public static final int PROCESS = 4;
+    /** Three cards were added to the board */
+    public static final int ADD_CARDS = 5;
+    /** A hint was shown */
+    public static final int HINT = 6;
+    /** The game was replaced by a snapshot (restored or undone to): varint length, snapshot bytes */
+    public static final int RESTORE = 7;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    private int length;
+    private int eventCount;
+    private long originNanos = System.nanoTime();
+    private long lastEventMillis;
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the number of bytes the log takes
+     */
+    public int getSize() {
+        return length;
+    }
+
+    /**
+     * Returns a copy of the encoded events, e.g. to send for verification
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, length);
+    }
+
+    /**
+     * Creates a log from bytes returned by {@link #toByteArray()}; more events can be appended to it
+     */
+    public static MoveLog fromByteArray(byte[] bytes) {
+        MoveLog log = new MoveLog();
+        log.data = Arrays.copyOf(bytes, Math.max(bytes.length, INITIAL_CAPACITY));
+        log.length = bytes.length;
+        Reader reader = log.reader();
+        while (reader.next()) {
+            log.eventCount++;
+            log.lastEventMillis = reader.getTimeMillis();
+        }
+        // Carry on from the last event's time instead of starting the clock over
+        log.originNanos = System.nanoTime() - log.lastEventMillis * 1_000_000;
+        return log;
+    }
+
+    /**
+     * Drops every event and restarts the clock, keeping the buffer for the next game
+     */
+    void clear() {
+        length = 0;
+        eventCount = 0;
+        originNanos = System.nanoTime();
+        lastEventMillis = 0;
+    }
+
+    public Reader reader() {
+        return new Reader();
+    }
+
+    void appendStart(long seed, DealStrategy dealStrategy) {
+        appendHeader(START);
+        appendLong(seed);
+        appendByte(dealStrategy.ordinal());
+    }
+
+    void appendPreset(long seed, int[] openingCardIds) {
+        appendHeader(PRESET);
+        appendLong(seed);
+        appendByte(openingCardIds.length);
+        for (int id : openingCardIds) {
+            appendByte(id);
+        }
+    }
+
+    void appendSelect(int position) {
+        appendHeader(SELECT);
+        appendByte(position);
+    }
+
+    void appendRestore(byte[] snapshot) {
+        appendHeader(RESTORE);
+        appendVarLong(snapshot.length);
+        for (byte b : snapshot) {
+            appendByte(b);
+        }
+    }
+
+    void append(int type) {
+        appendHeader(type);
+    }
+
+    private void appendHeader(int type) {
+        // Timestamps never go backwards, even if events arrive within the same millisecond
+        long nowMillis = Math.max(lastEventMillis, (System.nanoTime() - originNanos) / 1_000_000);
+        appendByte(type);
+        appendVarLong(nowMillis - lastEventMillis);
+        lastEventMillis = nowMillis;
+        eventCount++;
+    }
+
+    private void appendByte(int value) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void appendLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            appendByte((int) (value >>> shift));
+        }
+    }
+
+    private void appendVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            appendByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        appendByte((int) value);
+    }
+
+    /**
+     * Walks the events in order. Call {@link #next()} before reading each event.
+     */
+    public class Reader {
+        private int position;
+        private int type = -1;
+        private long timeMillis;
+        private long seed;
+        private int slot;
+        private int dealStrategy;
+        private int presetStart;
+        private int presetCount;
+        private int snapshotStart;
+        private int snapshotLength;
+
+        /**
+         * Moves to the next event, returning false at the end of the log
+         */
+        public boolean next() {
+            if (position >= length) {
+                return false;
+            }
+            type = data[position++];
+            timeMillis += readVarLong();
+            switch (type) {
+                case START:
+                    seed = readLong();
+                    dealStrategy = data[position++];
+                    break;
+                case PRESET:
+                    seed = readLong();
+                    presetCount = data[position++];
+                    presetStart = position;
+                    position += presetCount;
+                    break;
+                case SELECT:
+                    slot = data[position++];
+                    break;
+                case RESTORE:
+                    snapshotLength = (int) readVarLong();
+                    snapshotStart = position;
+                    position += snapshotLength;
+                    break;
+                case CLEAR:
+                case PROCESS:
+                case ADD_CARDS:
+                case HINT:
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event type " + type + " in move log");
+            }
+            return true;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * Returns the time of the event in milliseconds since the log was created or cleared
+         */
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        /** Seed of a START or PRESET event */
+        public long getSeed() {
+            return seed;
+        }
+
+        /** Deal strategy of a START event */
+        public DealStrategy getDealStrategy() {
+            return DealStrategy.values()[dealStrategy];
+        }
+
+        /** Selected slot of a SELECT event */
+        public int getSlot() {
+            return slot;
+        }
+
+        /** Opening card ids of a PRESET event */
+        public int[] getOpeningCardIds() {
+            int[] ids = new int[presetCount];
+            for (int i = 0; i < presetCount; i++) {
+                ids[i] = data[presetStart + i];
+            }
+            return ids;
+        }
+
+        /** Snapshot of a RESTORE event, as taken by {@link GameModel#toSnapshot()} */
+        public byte[] getSnapshot() {
+            return Arrays.copyOfRange(data, snapshotStart, snapshotStart + snapshotLength);
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
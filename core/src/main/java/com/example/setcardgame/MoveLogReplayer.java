@@ -0,0 +1,62 @@
+package com.example.setcardgame;
+
+/**
+ * Rebuilds game states by replaying a {@link MoveLog}.
+ *
+ * Deals are reproducible from their seeds, so applying the logged moves to a
+ * fresh model gives exactly the recorded state. A restored or undone game is
+ * logged with its snapshot, so replay carries on from there. This backs undo,
+ * replays and checking a submitted score against its log.
+ */
+public final class MoveLogReplayer {
+    private MoveLogReplayer() {}
+
+    /**
+     * Returns the game as it was after the whole log
+     */
+    public static GameModel replay(MoveLog log) {
+        return replay(log, log.getEventCount());
+    }
+
+    /**
+     * Returns the game as it was after the first eventCount events
+     */
+    public static GameModel replay(MoveLog log, int eventCount) {
+        GameModel gameModel = new GameModel(0);
+        MoveLog.Reader reader = log.reader();
+        for (int i = 0; i < eventCount && reader.next(); i++) {
+            apply(gameModel, reader);
+        }
+        return gameModel;
+    }
+
+    private static void apply(GameModel gameModel, MoveLog.Reader event) {
+        switch (event.getType()) {
+            case MoveLog.START:
+                gameModel.setDealStrategy(event.getDealStrategy());
+                gameModel.startNewGame(event.getSeed());
+                break;
+            case MoveLog.PRESET:
+                gameModel.startNewGame(event.getSeed(), event.getOpeningCardIds());
+                break;
+            case MoveLog.SELECT:
+                gameModel.selectCard(event.getSlot());
+                break;
+            case MoveLog.CLEAR:
+                gameModel.clearSelectedCards();
+                break;
+            case MoveLog.PROCESS:
+                gameModel.processSelectedSet();
+                break;
+            case MoveLog.ADD_CARDS:
+                gameModel.addCards();
+                break;
+            case MoveLog.RESTORE:
+                gameModel.restoreSnapshot(event.getSnapshot());
+                break;
+            case MoveLog.HINT:
+                // Hints do not change the game
+                break;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.setcardgame;
+
+/**
+ * All 1080 sets of the 81-card deck, each stored as an 81-bit mask over card ids.
+ *
+ * A mask is a pair of longs: ids 0-63 in the low word and ids 64-80 in the
+ * high word, the same layout {@link Board} uses for its presence bitmap.
+ * Queries against a card mask are then a few bitwise ops per set.
+ */
+public final class SetCatalogue {
+    /** Number of distinct sets in the deck (81 * 80 / 6). */
+    public static final int SET_COUNT = 1080;
+
+    private static final long[] MASK_LOW = new long[SET_COUNT];
+    private static final long[] MASK_HIGH = new long[SET_COUNT];
+
+    // Card ids of each set, packed as three ascending 8-bit ids
+    private static final int[] IDS = new int[SET_COUNT];
+
+    static {
+        int index = 0;
+        for (int id1 = 0; id1 < SetRules.CARD_COUNT; id1++) {
+            for (int id2 = id1 + 1; id2 < SetRules.CARD_COUNT; id2++) {
+                int id3 = SetRules.thirdCard(id1, id2);
+                // Only keep each set once, from its two lowest ids
+                if (id3 > id2) {
+                    IDS[index] = id1 | (id2 << 8) | (id3 << 16);
+                    MASK_LOW[index] = bitLow(id1) | bitLow(id2) | bitLow(id3);
+                    MASK_HIGH[index] = bitHigh(id1) | bitHigh(id2) | bitHigh(id3);
+                    index++;
+                }
+            }
+        }
+    }
+
+    private SetCatalogue() {}
+
+    private static long bitLow(int id) {
+        return id < 64 ? 1L << id : 0;
+    }
+
+    private static long bitHigh(int id) {
+        return id < 64 ? 0 : 1L << id;
+    }
+
+    /**
+     * Returns card n (0, 1 or 2) of the set with the given index, in ascending id order
+     */
+    public static int cardId(int setIndex, int n) {
+        return (IDS[setIndex] >>> (8 * n)) & 0xFF;
+    }
+
+    /**
+     * Counts the sets whose three cards are all in the mask.
+     * With a board mask these are the sets on the board; with board | remaining deck
+     * they are the sets that can still be found this game.
+     */
+    public static int countContained(long maskLow, long maskHigh) {
+        int count = 0;
+        for (int i = 0; i < SET_COUNT; i++) {
+            if (((MASK_LOW[i] & ~maskLow) | (MASK_HIGH[i] & ~maskHigh)) == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the indices of the sets whose three cards are all in the mask into out,
+     * stopping when out is full, and returns how many were written
+     */
+    public static int findContained(long maskLow, long maskHigh, int[] out) {
+        int count = 0;
+        for (int i = 0; i < SET_COUNT && count < out.length; i++) {
+            if (((MASK_LOW[i] & ~maskLow) | (MASK_HIGH[i] & ~maskHigh)) == 0) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the indices of the sets with exactly two of their cards in the mask into out,
+     * stopping when out is full, and returns how many were written.
+     * Use {@link #missingCardId(int, long, long)} to get the card each one is waiting for.
+     */
+    public static int findOneShort(long maskLow, long maskHigh, int[] out) {
+        int count = 0;
+        for (int i = 0; i < SET_COUNT && count < out.length; i++) {
+            if (Long.bitCount(MASK_LOW[i] & maskLow) + Long.bitCount(MASK_HIGH[i] & maskHigh) == 2) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the id of the one card of the set that is not in the mask
+     */
+    public static int missingCardId(int setIndex, long maskLow, long maskHigh) {
+        long low = MASK_LOW[setIndex] & ~maskLow;
+        if (low != 0) {
+            return Long.numberOfTrailingZeros(low);
+        }
+        return 64 + Long.numberOfTrailingZeros(MASK_HIGH[setIndex] & ~maskHigh);
+    }
+}
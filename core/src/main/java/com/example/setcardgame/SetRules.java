@@ -0,0 +1,105 @@
+package com.example.setcardgame;
+
+/**
+ * Arithmetic set validation over packed card ids.
+ *
+ * A card id is four base-3 digits (color, shape, shading, number), and three
+ * cards form a set iff every digit sums to 0 mod 3. Each id is spread into
+ * 3-bit fields so the three cards can be added without carries between
+ * features; the 12-bit sum is then looked up in a 4096-bit table of sums
+ * whose fields are all 0, 3 or 6.
+ *
+ * Any two distinct cards are completed to a set by exactly one third card,
+ * which is precomputed for all 81x81 pairs.
+ */
+public final class SetRules {
+    /** Number of distinct cards in the deck (3^4). */
+    public static final int CARD_COUNT = 81;
+
+    /**
+     * Most cards on the board at once. At most 20 cards can be free of sets,
+     * so 21 cards always hold one and dealing more is never needed.
+     */
+    public static final int MAX_BOARD_SIZE = 21;
+
+    private static final int FEATURE_COUNT = 4;
+    private static final int FIELD_BITS = 3;
+
+    // Card id -> one 3-bit field per feature
+    private static final int[] PACKED = new int[CARD_COUNT];
+
+    // Bit s is set iff packed sum s describes a valid set
+    private static final long[] VALID_SUMS = new long[(1 << (FEATURE_COUNT * FIELD_BITS)) / 64];
+
+    // (id1 * 81 + id2) -> id of the card completing the set
+    private static final byte[] THIRD = new byte[CARD_COUNT * CARD_COUNT];
+
+    static {
+        for (int id = 0; id < CARD_COUNT; id++) {
+            int packed = 0;
+            int digits = id;
+            for (int feature = 0; feature < FEATURE_COUNT; feature++) {
+                packed |= (digits % 3) << (feature * FIELD_BITS);
+                digits /= 3;
+            }
+            PACKED[id] = packed;
+        }
+
+        // Every feature sum must be 0, 3 or 6
+        for (int sum = 0; sum < VALID_SUMS.length * 64; sum++) {
+            boolean valid = true;
+            for (int feature = 0; feature < FEATURE_COUNT; feature++) {
+                int field = (sum >>> (feature * FIELD_BITS)) & 7;
+                if (field % 3 != 0 || field > 6) {
+                    valid = false;
+                }
+            }
+            if (valid) {
+                VALID_SUMS[sum >>> 6] |= 1L << sum;
+            }
+        }
+
+        // Each feature of the third card is -(a + b) mod 3
+        for (int id1 = 0; id1 < CARD_COUNT; id1++) {
+            for (int id2 = 0; id2 < CARD_COUNT; id2++) {
+                int third = 0;
+                int place = 1;
+                int digits1 = id1;
+                int digits2 = id2;
+                for (int feature = 0; feature < FEATURE_COUNT; feature++) {
+                    third += ((6 - digits1 % 3 - digits2 % 3) % 3) * place;
+                    digits1 /= 3;
+                    digits2 /= 3;
+                    place *= 3;
+                }
+                THIRD[id1 * CARD_COUNT + id2] = (byte) third;
+            }
+        }
+    }
+
+    private SetRules() {}
+
+    /**
+     * Checks if three card ids form a valid set.
+     * Ids must be in the range [0, 81); no bounds checks are made.
+     */
+    public static boolean isValidSet(int id1, int id2, int id3) {
+        int sum = PACKED[id1] + PACKED[id2] + PACKED[id3];
+        return (VALID_SUMS[sum >>> 6] & (1L << sum)) != 0;
+    }
+
+    /**
+     * Checks if three cards form a valid set
+     */
+    public static boolean isValidSet(Card card1, Card card2, Card card3) {
+        return isValidSet(card1.getId(), card2.getId(), card3.getId());
+    }
+
+    /**
+     * Returns the id of the only card that completes a set with the two given cards.
+     * For two equal ids the result is that same id.
+     */
+    public static int thirdCard(int id1, int id2) {
+        return THIRD[id1 * CARD_COUNT + id2];
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.setcardgame;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BoardDiffTest {
+
+    /**
+     * Applies the updates to a list of slots the way RecyclerView would
+     */
+    private static final class Slots implements BoardDiff.Callback {
+        final List<Integer> ids = new ArrayList<>();
+        final List<Boolean> selected = new ArrayList<>();
+        final GameState newState;
+        int updates;
+
+        Slots(GameState oldState, GameState newState) {
+            for (int i = 0; i < oldState.getBoardSize(); i++) {
+                ids.add(oldState.idAt(i));
+                selected.add(oldState.isSelected(i));
+            }
+            this.newState = newState;
+        }
+
+        @Override
+        public void onInserted(int position) {
+            // Like a rebind, the new slot reads the card from the new state
+            ids.add(position, -1);
+            selected.add(position, false);
+            bind(position);
+        }
+
+        @Override
+        public void onRemoved(int position) {
+            ids.remove(position);
+            selected.remove(position);
+            updates++;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            ids.add(toPosition, ids.remove(fromPosition));
+            selected.add(toPosition, selected.remove(fromPosition));
+            updates++;
+        }
+
+        @Override
+        public void onCardChanged(int position) {
+            bind(position);
+        }
+
+        @Override
+        public void onSelectionChanged(int position) {
+            selected.set(position, newState.isSelected(position));
+            updates++;
+        }
+
+        private void bind(int position) {
+            ids.set(position, newState.idAt(position));
+            selected.set(position, newState.isSelected(position));
+            updates++;
+        }
+    }
+
+    private static Slots apply(GameState oldState, GameState newState) {
+        Slots slots = new Slots(oldState, newState);
+        BoardDiff.dispatch(oldState, newState, slots);
+        assertEquals(newState.getBoardSize(), slots.ids.size());
+        for (int i = 0; i < newState.getBoardSize(); i++) {
+            assertEquals(newState.idAt(i), (int) slots.ids.get(i));
+            assertEquals(newState.isSelected(i), slots.selected.get(i));
+        }
+        return slots;
+    }
+
+    @Test
+    public void dispatch_turnsEveryMoveIntoTheNewBoard() {
+        Random random = new Random(3);
+        for (int game = 0; game < 50; game++) {
+            GameModel model = new GameModel(game);
+            model.startNewGame();
+            GameState state = model.toState();
+            apply(new GameModel(game).toState(), state);
+
+            while (!state.isGameOver()) {
+                GameState next;
+                int[] sets = state.findAllSets();
+                if (sets.length == 0) {
+                    next = state.addCards();
+                    if (next == state) {
+                        break;
+                    }
+                } else if (random.nextInt(4) == 0) {
+                    next = state.selectCard(random.nextInt(state.getBoardSize()));
+                } else {
+                    next = state.clearSelection();
+                    for (int n = 0; n < 3; n++) {
+                        next = next.selectCard(GameModel.setSlot(sets[random.nextInt(sets.length)], n));
+                    }
+                    next = next.processSelectedSet();
+                }
+                apply(state, next);
+                state = next;
+            }
+        }
+    }
+
+    @Test
+    public void dispatch_reportsOnlyTheChangedSlots() {
+        GameModel model = new GameModel(1);
+        model.startNewGame();
+        GameState state = model.toState();
+
+        assertEquals(0, apply(state, state).updates);
+        assertEquals(1, apply(state, state.selectCard(4)).updates);
+        assertEquals(3, apply(state, state.addCards()).updates);
+
+        int set = state.findAllSets()[0];
+        GameState selected = state.selectCard(GameModel.setSlot(set, 0))
+                .selectCard(GameModel.setSlot(set, 1))
+                .selectCard(GameModel.setSlot(set, 2));
+        // Three cards replaced in place
+        assertEquals(3, apply(selected, selected.processSelectedSet()).updates);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.setcardgame;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BoardTest {
+
+    private static int[] bruteForceSets(Board board) {
+        List<Integer> sets = new ArrayList<>();
+        for (int i = 0; i < board.size(); i++) {
+            for (int j = i + 1; j < board.size(); j++) {
+                for (int k = j + 1; k < board.size(); k++) {
+                    if (Card.isValidSet(board.get(i), board.get(j), board.get(k))) {
+                        sets.add(i | (j << 8) | (k << 16));
+                    }
+                }
+            }
+        }
+        return sets.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    @Test
+    public void setCount_followsAddsReplacesAndRemoves() {
+        Random random = new Random(42);
+        Board board = new Board();
+        List<Integer> offBoard = new ArrayList<>();
+        for (int id = 0; id < SetRules.CARD_COUNT; id++) {
+            offBoard.add(id);
+        }
+
+        for (int step = 0; step < 2000; step++) {
+            int action = random.nextInt(3);
+            if ((action == 0 || board.isEmpty()) && !offBoard.isEmpty()) {
+                board.addId(offBoard.remove(random.nextInt(offBoard.size())));
+            } else if (action == 1 && !offBoard.isEmpty()) {
+                int slot = random.nextInt(board.size());
+                int oldId = board.idAt(slot);
+                board.replace(slot, offBoard.remove(random.nextInt(offBoard.size())));
+                offBoard.add(oldId);
+            } else if (!board.isEmpty()) {
+                int slot = random.nextInt(board.size());
+                offBoard.add(board.idAt(slot));
+                board.removeAt(slot);
+            }
+
+            int[] expected = bruteForceSets(board);
+            int[] found = board.findAllSets();
+            java.util.Arrays.sort(found);
+            assertEquals(expected.length, board.getSetCount());
+            assertArrayEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void slotIndex_tracksMovedCards() {
+        Board board = new Board();
+        board.addId(5);
+        board.addId(10);
+        board.addId(70);
+
+        board.removeAt(0);
+
+        assertEquals(2, board.size());
+        assertEquals(70, board.idAt(0));
+        assertEquals(0, board.slotOf(70));
+        assertEquals(-1, board.slotOf(5));
+        assertFalse(board.containsId(5));
+        assertTrue(board.containsId(70));
+    }
+
+    @Test
+    public void listener_reportsExactlyTheChangedSlots() {
+        Board board = new Board();
+        List<String> events = new ArrayList<>();
+        board.setListener(new Board.Listener() {
+            @Override
+            public void onSlotChanged(int position) {
+                events.add("changed " + position);
+            }
+
+            @Override
+            public void onSlotInserted(int position) {
+                events.add("inserted " + position);
+            }
+
+            @Override
+            public void onSlotRemoved(int position) {
+                events.add("removed " + position);
+            }
+        });
+
+        for (int id : new int[] {5, 10, 70, 20}) {
+            board.addId(id);
+        }
+        board.replace(1, 30);
+        // The last card moves into the emptied slot, then the last slot goes
+        board.removeAt(1);
+        // Removing the last slot moves nothing
+        board.removeAt(2);
+
+        assertEquals(Arrays.asList("inserted 0", "inserted 1", "inserted 2", "inserted 3",
+                "changed 1",
+                "changed 1", "removed 3",
+                "removed 2"), events);
+        assertEquals(Arrays.asList(Card.of(5), Card.of(20)), board);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.setcardgame;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class GameEngineTest {
+
+    @Test
+    public void commands_runInOrderAndPublishEachState() throws Exception {
+        GameModel expected = new GameModel(4);
+        GameEngine engine = new GameEngine(new GameModel(4), Runnable::run);
+        List<GameState> published = Collections.synchronizedList(new ArrayList<>());
+        engine.setListener(new GameEngine.Listener() {
+            @Override
+            public void onStateChanged(GameState state) {
+                published.add(state);
+            }
+
+            @Override
+            public void onSelectionProcessed(int[] slots, int[] cardIds, boolean validSet) {
+            }
+        });
+
+        expected.startNewGame();
+        engine.startNewGame();
+        // Play the game headlessly, queueing whole moves without waiting in between
+        while (!expected.isGameOver()) {
+            int[] sets = expected.findAllSets();
+            if (sets.length == 0) {
+                if (!expected.addCards()) {
+                    break;
+                }
+                engine.addCards();
+                continue;
+            }
+            for (int n = 0; n < 3; n++) {
+                expected.selectCard(GameModel.setSlot(sets[0], n));
+                engine.selectCard(GameModel.setSlot(sets[0], n));
+            }
+            expected.processSelectedSet();
+            engine.processSelectedSet();
+        }
+        GameState last = engine.setGameOver(true).get();
+        engine.shutdown();
+
+        assertSame(last, engine.getState());
+        assertSame(last, published.get(published.size() - 1));
+        assertArrayEquals(expected.getBoard().toIdArray(), last.toIdArray());
+        assertEquals(expected.getScore(), last.getScore());
+        assertTrue(last.isGameOver());
+    }
+
+    @Test
+    public void selectCardAndProcess_processesTheThirdCardRightAway() throws Exception {
+        GameModel gameModel = new GameModel(6);
+        gameModel.startNewGame();
+        int set = gameModel.findAllSets()[0];
+        int[] expectedIds = new int[3];
+        for (int n = 0; n < 3; n++) {
+            expectedIds[n] = gameModel.getBoard().idAt(GameModel.setSlot(set, n));
+        }
+        GameEngine engine = new GameEngine(gameModel, Runnable::run);
+        List<int[]> processed = Collections.synchronizedList(new ArrayList<>());
+        engine.setListener(new GameEngine.Listener() {
+            @Override
+            public void onStateChanged(GameState state) {
+            }
+
+            @Override
+            public void onSelectionProcessed(int[] slots, int[] cardIds, boolean validSet) {
+                assertTrue(validSet);
+                processed.add(slots);
+                processed.add(cardIds);
+            }
+        });
+
+        engine.selectCardAndProcess(GameModel.setSlot(set, 2));
+        assertEquals(2, engine.selectCardAndProcess(GameModel.setSlot(set, 0)).get().getSelectedCount());
+        GameState state = engine.selectCardAndProcess(GameModel.setSlot(set, 1)).get();
+        engine.shutdown();
+
+        assertEquals(1, state.getScore());
+        assertEquals(0, state.getSelectedCount());
+        assertArrayEquals(new int[] {GameModel.setSlot(set, 0), GameModel.setSlot(set, 1), GameModel.setSlot(set, 2)},
+                processed.get(0));
+        assertArrayEquals(expectedIds, processed.get(1));
+    }
+
+    @Test
+    public void selectCardAndProcess_reportsWhenTheTapIsAccepted() throws Exception {
+        GameEngine engine = new GameEngine(new GameModel(8), Runnable::run);
+        engine.startNewGame().get();
+        List<Long> accepted = Collections.synchronizedList(new ArrayList<>());
+        long before = System.nanoTime();
+        engine.selectCardAndProcess(0, accepted::add);
+        engine.selectCardAndProcess(1, accepted::add).get();
+        long after = System.nanoTime();
+        engine.shutdown();
+
+        assertEquals(2, accepted.size());
+        assertTrue(before <= accepted.get(0) && accepted.get(0) <= accepted.get(1) && accepted.get(1) <= after);
+    }
+
+    @Test
+    public void savedGame_followsEachPublishedState() throws Exception {
+        GameModel gameModel = new GameModel(13);
+        gameModel.setMoveLog(new MoveLog());
+        GameEngine engine = new GameEngine(gameModel, Runnable::run);
+        int set = engine.startNewGame().get().findAllSets()[0];
+        for (int n = 0; n < 3; n++) {
+            engine.selectCardAndProcess(GameModel.setSlot(set, n));
+        }
+        engine.selectCard(0).get();
+        engine.shutdown();
+
+        GameModel restored = new GameModel();
+        restored.restoreSnapshot(engine.getSnapshot());
+        assertArrayEquals(engine.getState().toIdArray(), restored.getBoard().toIdArray());
+        assertEquals(1, restored.getScore());
+        assertEquals(1, restored.getSelectedCount());
+
+        GameModel replayed = MoveLogReplayer.replay(MoveLog.fromByteArray(engine.getMoveLog()));
+        assertArrayEquals(engine.getState().toIdArray(), replayed.getBoard().toIdArray());
+        assertEquals(1, replayed.getSelectedCount());
+    }
+
+    @Test
+    public void restoreSnapshot_reportsWhetherTheSnapshotWasRead() throws Exception {
+        GameModel saved = new GameModel(14);
+        saved.startNewGame();
+        byte[] snapshot = saved.toSnapshot();
+
+        GameModel gameModel = new GameModel(15);
+        MoveLog log = new MoveLog();
+        gameModel.setMoveLog(log);
+        GameEngine engine = new GameEngine(gameModel, Runnable::run);
+        GameState before = engine.startNewGame().get();
+        List<Boolean> results = Collections.synchronizedList(new ArrayList<>());
+
+        byte[] truncated = Arrays.copyOf(snapshot, snapshot.length - 5);
+        GameState state = engine.restoreSnapshot(truncated, null, results::add).get();
+        assertArrayEquals(before.toIdArray(), state.toIdArray());
+        assertEquals(1, log.getEventCount());
+
+        state = engine.restoreSnapshot(snapshot, null, results::add).get();
+        engine.shutdown();
+        assertArrayEquals(saved.toState().toIdArray(), state.toIdArray());
+        assertEquals(Arrays.asList(false, true), results);
+    }
+
+    @Test
+    public void hint_returnsTheSetsOnTheBoard() throws Exception {
+        GameModel gameModel = new GameModel(8);
+        gameModel.startNewGame();
+        int[] expected = gameModel.findAllSets();
+        GameEngine engine = new GameEngine(gameModel, Runnable::run);
+
+        int[][] hinted = new int[1][];
+        int[] sets = engine.hint(found -> hinted[0] = found).get();
+        assertArrayEquals(expected, sets);
+        assertSame(sets, hinted[0]);
+
+        // The sets are kept until the board changes; a selection leaves it as it is
+        engine.selectCard(0);
+        assertSame(sets, engine.hint(found -> { }).get());
+        engine.addCards();
+        int[] afterAdding = engine.hint(found -> { }).get();
+        engine.shutdown();
+        assertArrayEquals(gameModel.findAllSets(), afterAdding);
+    }
+}
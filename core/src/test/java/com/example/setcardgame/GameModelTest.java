@@ -0,0 +1,423 @@
+package com.example.setcardgame;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class GameModelTest {
+
+    @Test
+    public void startNewGame_dealsABoardWithASet() {
+        GameModel model = new GameModel();
+        model.startNewGame();
+
+        assertTrue(model.getBoard().size() >= 12);
+        assertTrue(model.hasValidSet());
+        assertEquals(81 - model.getBoard().size(), model.getRemainingCards());
+    }
+
+    @Test
+    public void playingFoundSets_usesTheWholeDeck() {
+        GameModel model = new GameModel();
+        model.startNewGame();
+
+        Set<Integer> seen = new HashSet<>();
+        for (Card card : model.getBoard()) {
+            seen.add(card.getId());
+        }
+
+        while (!model.isGameOver()) {
+            List<Integer> set = model.findValidSet();
+            if (set.isEmpty()) {
+                assertTrue(model.addCards());
+            } else {
+                for (int position : set) {
+                    assertTrue(model.selectCard(position));
+                }
+                assertTrue(model.isSelectedSetValid());
+                model.processSelectedSet();
+                assertEquals(0, model.getSelectedCount());
+            }
+            for (Card card : model.getBoard()) {
+                seen.add(card.getId());
+            }
+        }
+
+        assertEquals(0, model.getRemainingCards());
+        assertEquals(SetRules.CARD_COUNT, seen.size());
+        assertFalse(model.hasValidSet());
+    }
+
+    @Test
+    public void selectCard_togglesUntilThreeAreSelected() {
+        GameModel model = new GameModel();
+        model.startNewGame();
+
+        assertTrue(model.selectCard(0));
+        assertTrue(model.isSelected(0));
+        assertTrue(model.selectCard(0));
+        assertFalse(model.isSelected(0));
+
+        model.selectCard(0);
+        model.selectCard(1);
+        model.selectCard(2);
+        assertEquals(3, model.getSelectedCount());
+        assertFalse(model.selectCard(3));
+        assertFalse(model.selectCard(0));
+
+        model.clearSelectedCards();
+        assertEquals(0, model.getSelectedCount());
+    }
+
+    @Test
+    public void selectionListener_reportsExactlyTheChangedSlots() {
+        GameModel model = new GameModel(4);
+        model.startNewGame();
+        int set = model.findAllSets()[0];
+        int first = GameModel.setSlot(set, 0);
+        int second = GameModel.setSlot(set, 1);
+        int third = GameModel.setSlot(set, 2);
+        int other = 0;
+        while (other == first || other == second || other == third) {
+            other++;
+        }
+        List<String> events = new ArrayList<>();
+        model.setSelectionListener((position, selected) -> events.add((selected ? "+" : "-") + position));
+
+        model.selectCard(other);
+        model.selectCard(other);
+        model.selectCard(third);
+        model.selectCard(first);
+        model.selectCard(second);
+        // Refused with three selected, so not reported
+        model.selectCard(other);
+        model.processSelectedSet();
+        model.selectCard(second);
+        model.clearSelectedCards();
+
+        assertEquals(Arrays.asList("+" + other, "-" + other, "+" + third, "+" + first, "+" + second,
+                "-" + first, "-" + second, "-" + third, "+" + second, "-" + second), events);
+    }
+
+    @Test
+    public void sameSeed_givesSameDeals() {
+        GameModel first = new GameModel(1234);
+        GameModel second = new GameModel(1234);
+
+        for (int game = 0; game < 3; game++) {
+            first.startNewGame();
+            second.startNewGame();
+            assertEquals(first.getGameSeed(), second.getGameSeed());
+            assertEquals(first.getBoard(), second.getBoard());
+            while (first.addCards()) {
+                second.addCards();
+            }
+            assertEquals(first.getBoard(), second.getBoard());
+        }
+
+        GameModel replay = new GameModel();
+        replay.startNewGame(first.getGameSeed());
+        first.startNewGame(first.getGameSeed());
+        assertEquals(first.getBoard(), replay.getBoard());
+    }
+
+    @Test
+    public void addCards_stopsAtMaxBoardSize() {
+        GameModel model = new GameModel(42);
+        model.startNewGame();
+        GameState state = model.toState();
+
+        while (model.addCards()) {
+            state = state.addCards();
+            assertEquals(model.getBoard().size(), state.getBoardSize());
+        }
+        assertEquals(SetRules.MAX_BOARD_SIZE, model.getBoard().size());
+        assertEquals(81 - SetRules.MAX_BOARD_SIZE, model.getRemainingCards());
+        assertTrue(model.hasValidSet());
+        assertTrue(state.addCards() == state);
+    }
+
+    @Test
+    public void deckRandom_staysInBounds() {
+        DeckRandom random = new DeckRandom(99);
+        int[] counts = new int[3];
+        for (int i = 0; i < 30000; i++) {
+            int value = random.nextInt(3);
+            assertTrue(value >= 0 && value < 3);
+            counts[value]++;
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 10000) < 500);
+        }
+    }
+
+    @Test
+    public void reshuffleStrategy_opensWithTwelveCardsAndASet() {
+        GameModel model = new GameModel(5);
+        model.setDealStrategy(DealStrategy.RESHUFFLE);
+
+        for (int game = 0; game < 500; game++) {
+            model.startNewGame();
+            assertEquals(12, model.getBoard().size());
+            assertTrue(model.hasValidSet());
+            assertEquals(69, model.getRemainingCards());
+        }
+    }
+
+    @Test
+    public void snapshot_restoresTheWholeGame() {
+        GameModel model = new GameModel(77);
+        model.startNewGame();
+        List<Integer> set = model.findValidSet();
+        for (int position : set) {
+            model.selectCard(position);
+        }
+        model.processSelectedSet();
+        model.addCards();
+        model.selectCard(1);
+        model.selectCard(4);
+
+        byte[] snapshot = model.toSnapshot();
+        assertTrue(snapshot.length < 200);
+
+        GameModel restored = new GameModel();
+        restored.restoreSnapshot(snapshot);
+        assertEquals(model.getBoard(), restored.getBoard());
+        assertEquals(model.getSelectedCards(), restored.getSelectedCards());
+        assertEquals(model.getScore(), restored.getScore());
+        assertEquals(model.getRemainingCards(), restored.getRemainingCards());
+        assertEquals(model.countSets(), restored.countSets());
+        assertEquals(model.getGameSeed(), restored.getGameSeed());
+
+        // The rest of the deck and the following games come out the same
+        while (model.addCards()) {
+            assertTrue(restored.addCards());
+        }
+        assertEquals(model.getBoard(), restored.getBoard());
+        model.startNewGame();
+        restored.startNewGame();
+        assertEquals(model.getBoard(), restored.getBoard());
+    }
+
+    @Test
+    public void moveLog_replaysEveryIntermediateState() {
+        GameModel model = new GameModel(11);
+        MoveLog log = new MoveLog();
+        model.setMoveLog(log);
+        model.startNewGame();
+
+        List<byte[]> states = new ArrayList<>();
+        states.add(model.toSnapshot());
+        while (!model.isGameOver() && model.getScore() < 10) {
+            List<Integer> set = model.findValidSet();
+            if (set.isEmpty()) {
+                model.addCards();
+            } else {
+                model.selectCard(set.get(0));
+                model.selectCard(set.get(1));
+                model.selectCard(set.get(1)); // Changed our mind
+                model.selectCard(set.get(1));
+                model.recordHint();
+                model.selectCard(set.get(2));
+                model.processSelectedSet();
+            }
+            states.add(model.toSnapshot());
+        }
+
+        // Round trip through bytes, then rebuild the game after each move
+        MoveLog restored = MoveLog.fromByteArray(log.toByteArray());
+        assertEquals(log.getEventCount(), restored.getEventCount());
+        GameModel replayed = MoveLogReplayer.replay(restored);
+        assertEquals(model.getBoard(), replayed.getBoard());
+        assertEquals(model.getScore(), replayed.getScore());
+        assertEquals(model.getRemainingCards(), replayed.getRemainingCards());
+
+        MoveLog.Reader reader = restored.reader();
+        int events = 0;
+        int state = 0;
+        long lastTime = 0;
+        while (reader.next()) {
+            events++;
+            assertTrue(reader.getTimeMillis() >= lastTime);
+            lastTime = reader.getTimeMillis();
+            if (reader.getType() == MoveLog.START || reader.getType() == MoveLog.PROCESS
+                    || reader.getType() == MoveLog.ADD_CARDS) {
+                GameModel expected = new GameModel();
+                expected.restoreSnapshot(states.get(state++));
+                GameModel actual = MoveLogReplayer.replay(restored, events);
+                assertEquals(expected.getBoard(), actual.getBoard());
+                assertEquals(expected.getScore(), actual.getScore());
+            }
+        }
+        assertEquals(states.size(), state);
+    }
+
+    /** Finds and processes up to the given number of sets, adding cards when there is none */
+    private static void playSets(GameModel model, int sets) {
+        for (int found = 0; found < sets && !model.isGameOver(); ) {
+            List<Integer> set = model.findValidSet();
+            if (set.isEmpty()) {
+                model.addCards();
+                continue;
+            }
+            for (int position : set) {
+                model.selectCard(position);
+            }
+            model.processSelectedSet();
+            found++;
+        }
+    }
+
+    private static void assertSameGame(GameModel expected, GameModel actual) {
+        assertEquals(expected.getBoard(), actual.getBoard());
+        assertEquals(expected.getSelectedCards(), actual.getSelectedCards());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertArrayEquals(expected.toState().remainingDeck(), actual.toState().remainingDeck());
+    }
+
+    @Test
+    public void moveLog_replaysOpeningsThatHadToGrow() {
+        int grown = 0;
+        for (long seed = 0; seed < 200; seed++) {
+            GameModel model = new GameModel(0);
+            MoveLog log = new MoveLog();
+            model.setMoveLog(log);
+            model.startNewGame(seed);
+            if (model.getBoard().size() > 12) {
+                grown++;
+            }
+
+            // The extra opening cards come from the seed, so the log holds just the start
+            assertEquals(1, log.getEventCount());
+            assertSameGame(model, MoveLogReplayer.replay(log));
+        }
+        assertTrue(grown > 0);
+    }
+
+    @Test
+    public void moveLog_startsOverWithEachGame() {
+        GameModel model = new GameModel(17);
+        MoveLog log = new MoveLog();
+        model.setMoveLog(log);
+        model.startNewGame();
+        playSets(model, 5);
+        int firstGameSize = log.getSize();
+
+        model.startNewGame();
+        assertEquals(1, log.getEventCount());
+        playSets(model, 2);
+        assertTrue(log.getSize() < firstGameSize);
+        assertSameGame(model, MoveLogReplayer.replay(log));
+
+        model.startNewGame(new int[] {0, 1, 2});
+        assertEquals(1, log.getEventCount());
+        assertSameGame(model, MoveLogReplayer.replay(log));
+    }
+
+    @Test
+    public void moveLog_replaysAcrossSnapshotRestoreAndUndo() {
+        GameModel model = new GameModel(21);
+        model.setMoveLog(new MoveLog());
+        model.startNewGame();
+        playSets(model, 3);
+        model.selectCard(0);
+        byte[] snapshot = model.toSnapshot();
+        byte[] savedLog = model.getMoveLog().toByteArray();
+
+        // After process death: a new model with either a fresh log or the saved one
+        for (MoveLog log : new MoveLog[] {new MoveLog(), MoveLog.fromByteArray(savedLog)}) {
+            GameModel restored = new GameModel();
+            restored.setMoveLog(log);
+            restored.restoreSnapshot(snapshot);
+            playSets(restored, 2);
+
+            // Undo one set, then keep playing
+            GameState beforeSet = restored.toState();
+            playSets(restored, 1);
+            restored.restoreState(beforeSet);
+            playSets(restored, 2);
+            restored.addCards();
+            restored.selectCard(1);
+
+            MoveLog reloaded = MoveLog.fromByteArray(log.toByteArray());
+            assertSameGame(restored, MoveLogReplayer.replay(reloaded));
+
+            // Appending to the reloaded log keeps it replayable and its clock running forward
+            MoveLog.Reader reader = reloaded.reader();
+            long lastTime = 0;
+            while (reader.next()) {
+                lastTime = reader.getTimeMillis();
+            }
+            restored.setMoveLog(reloaded);
+            restored.clearSelectedCards();
+            playSets(restored, 1);
+            assertSameGame(restored, MoveLogReplayer.replay(reloaded));
+            reader = reloaded.reader();
+            while (reader.next()) {
+                // Read to the last event
+            }
+            assertTrue(reader.getTimeMillis() >= lastTime);
+        }
+    }
+
+    @Test
+    public void startNewGame_rejectsBadOpeningCardsWithoutChangingTheGame() {
+        GameModel model = new GameModel(5);
+        MoveLog log = new MoveLog();
+        model.setMoveLog(log);
+        model.startNewGame();
+        List<Card> board = new ArrayList<>(model.getBoard());
+        byte[] deck = model.toState().remainingDeck();
+        int logSize = log.getSize();
+
+        int[][] badLayouts = {{1, 2, 1}, {1, 2, 81}, {-1, 2, 3}, IntStream.range(0, 24).toArray()};
+        for (int[] layout : badLayouts) {
+            try {
+                model.startNewGame(layout);
+                fail("Accepted " + Arrays.toString(layout));
+            } catch (IllegalArgumentException expected) {
+                // The game and its log are untouched
+            }
+            assertEquals(board, model.getBoard());
+            assertArrayEquals(deck, model.toState().remainingDeck());
+            assertEquals(logSize, log.getSize());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshot_rejectsTruncatedData() {
+        GameModel model = new GameModel(3);
+        model.startNewGame();
+        byte[] snapshot = model.toSnapshot();
+        new GameModel().restoreSnapshot(Arrays.copyOf(snapshot, snapshot.length - 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshot_rejectsBoardsPastTheMaximumSize() {
+        // Format, flags, score, elapsed time, seeds, then the deck, a 24-card board and no selection
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 1 + 4 + 8 + 8 + 8 + 3 + SetRules.CARD_COUNT);
+        buffer.put((byte) 1).put((byte) 0).putInt(0).putLong(0).putLong(0).putLong(0);
+        buffer.put((byte) (SetRules.CARD_COUNT - 24));
+        for (int id = 24; id < SetRules.CARD_COUNT; id++) {
+            buffer.put((byte) id);
+        }
+        buffer.put((byte) 24);
+        for (int id = 0; id < 24; id++) {
+            buffer.put((byte) id);
+        }
+        buffer.put((byte) 0);
+        new GameModel().restoreSnapshot(buffer.array());
+    }
+}
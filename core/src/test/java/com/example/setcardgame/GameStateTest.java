@@ -0,0 +1,130 @@
+package com.example.setcardgame;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class GameStateTest {
+
+    private static void assertSameGame(GameModel model, GameState state) {
+        assertArrayEquals(model.getBoard().toIdArray(), state.toIdArray());
+        assertArrayEquals(model.findAllSets(), state.findAllSets());
+        assertEquals(model.countSets(), state.countSets());
+        assertEquals(model.getSelectedCount(), state.getSelectedCount());
+        for (int slot = 0; slot < state.getBoardSize(); slot++) {
+            assertEquals(model.isSelected(slot), state.isSelected(slot));
+        }
+        assertEquals(model.getScore(), state.getScore());
+        assertEquals(model.getRemainingCards(), state.getRemainingCards());
+        assertEquals(model.isGameOver(), state.isGameOver());
+    }
+
+    @Test
+    public void moves_matchTheGameModel() {
+        Random random = new Random(5);
+        for (int game = 0; game < 50; game++) {
+            GameModel model = new GameModel(game);
+            model.startNewGame();
+            GameState state = model.toState();
+
+            for (int move = 0; move < 300 && !model.isGameOver(); move++) {
+                int choice = random.nextInt(10);
+                if (choice == 0) {
+                    model.addCards();
+                    state = state.addCards();
+                } else if (choice < 3 || model.getSelectedCount() == 3) {
+                    // Half the time play a real set so the deck runs out
+                    int[] sets = model.findAllSets();
+                    if (sets.length > 0 && model.getSelectedCount() == 0 && random.nextBoolean()) {
+                        for (int n = 0; n < 3; n++) {
+                            model.selectCard(GameModel.setSlot(sets[0], n));
+                            state = state.selectCard(GameModel.setSlot(sets[0], n));
+                        }
+                    }
+                    model.processSelectedSet();
+                    state = state.processSelectedSet();
+                } else {
+                    int slot = random.nextInt(model.getBoard().size());
+                    model.selectCard(slot);
+                    state = state.selectCard(slot);
+                }
+                assertSameGame(model, state);
+            }
+        }
+    }
+
+    @Test
+    public void oldStates_areUnchangedByLaterMoves() {
+        GameModel model = new GameModel(9);
+        model.startNewGame();
+
+        List<GameState> history = new ArrayList<>();
+        List<byte[]> snapshots = new ArrayList<>();
+        GameState state = model.toState();
+        while (state.hasValidSet()) {
+            history.add(state);
+            snapshots.add(model.toSnapshot());
+            int set = state.findAllSets()[0];
+            for (int n = 0; n < 3; n++) {
+                state = state.selectCard(GameModel.setSlot(set, n));
+            }
+            state = state.processSelectedSet();
+            model.restoreState(state);
+            assertSameGame(model, state);
+        }
+
+        // Undo all the way back
+        for (int i = history.size() - 1; i >= 0; i--) {
+            GameModel expected = new GameModel();
+            expected.restoreSnapshot(snapshots.get(i));
+            model.restoreState(history.get(i));
+            assertSameGame(expected, history.get(i));
+            assertSameGame(model, history.get(i));
+        }
+    }
+
+    @Test
+    public void modelStates_keepTheirDeckWhenTheModelMovesOn() {
+        GameModel model = new GameModel(4);
+        model.startNewGame();
+        GameState first = model.toState();
+        byte[] firstDeck = first.remainingDeck();
+        int[] firstBoard = first.toIdArray();
+
+        // A new game reshuffles and a restore rewrites the model's deck
+        model.startNewGame();
+        GameState second = model.toState();
+        model.restoreState(first.addCards());
+        model.startNewGame();
+
+        assertArrayEquals(firstDeck, first.remainingDeck());
+        assertArrayEquals(firstBoard, first.toIdArray());
+        assertEquals(81 - second.getBoardSize(), second.getRemainingCards());
+
+        // Moves on the old state still deal from its own deck
+        int[] dealt = first.addCards().toIdArray();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(firstDeck[i], dealt[firstBoard.length + i]);
+        }
+    }
+
+    @Test
+    public void disallowedMoves_returnTheSameState() {
+        GameModel model = new GameModel(2);
+        model.startNewGame();
+        GameState state = model.toState();
+
+        assertSame(state, state.selectCard(-1));
+        assertSame(state, state.selectCard(state.getBoardSize()));
+        assertSame(state, state.processSelectedSet());
+        GameState full = state.selectCard(0).selectCard(1).selectCard(2);
+        assertSame(full, full.selectCard(3));
+        assertSame(full, full.selectCard(0));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.setcardgame;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SetCatalogueTest {
+
+    /** Random card mask with each card present with the given probability, as {low, high}. */
+    private static long[] randomMask(Random random, double density) {
+        long[] mask = new long[2];
+        for (int id = 0; id < SetRules.CARD_COUNT; id++) {
+            if (random.nextDouble() < density) {
+                if (id < 64) {
+                    mask[0] |= 1L << id;
+                } else {
+                    mask[1] |= 1L << id;
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static boolean contains(long[] mask, int id) {
+        return id < 64 ? (mask[0] & (1L << id)) != 0 : (mask[1] & (1L << id)) != 0;
+    }
+
+    /** Sets (as ascending packed ids) with exactly `inMask` of their cards in the mask, by brute force. */
+    private static List<Integer> bruteForceSets(long[] mask, int inMask) {
+        List<Integer> sets = new ArrayList<>();
+        for (int a = 0; a < SetRules.CARD_COUNT; a++) {
+            for (int b = a + 1; b < SetRules.CARD_COUNT; b++) {
+                for (int c = b + 1; c < SetRules.CARD_COUNT; c++) {
+                    if (!SetRules.isValidSet(a, b, c)) {
+                        continue;
+                    }
+                    int count = (contains(mask, a) ? 1 : 0) + (contains(mask, b) ? 1 : 0) + (contains(mask, c) ? 1 : 0);
+                    if (count == inMask) {
+                        sets.add(a | (b << 8) | (c << 16));
+                    }
+                }
+            }
+        }
+        return sets;
+    }
+
+    private static List<Integer> packed(int[] setIndices, int count) {
+        List<Integer> sets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int set = setIndices[i];
+            sets.add(SetCatalogue.cardId(set, 0) | (SetCatalogue.cardId(set, 1) << 8)
+                    | (SetCatalogue.cardId(set, 2) << 16));
+        }
+        return sets;
+    }
+
+    @Test
+    public void findContained_matchesBruteForce() {
+        Random random = new Random(7);
+        int[] out = new int[SetCatalogue.SET_COUNT];
+        for (int trial = 0; trial < 50; trial++) {
+            long[] mask = randomMask(random, random.nextDouble());
+            List<Integer> expected = bruteForceSets(mask, 3);
+
+            int found = SetCatalogue.findContained(mask[0], mask[1], out);
+            assertEquals(expected, packed(out, found));
+            assertEquals(expected.size(), SetCatalogue.countContained(mask[0], mask[1]));
+
+            // A short output array gets the first sets only
+            int[] shortOut = new int[2];
+            int shortFound = SetCatalogue.findContained(mask[0], mask[1], shortOut);
+            assertEquals(Math.min(2, expected.size()), shortFound);
+            assertEquals(expected.subList(0, shortFound), packed(shortOut, shortFound));
+        }
+    }
+
+    @Test
+    public void findOneShort_matchesBruteForceAndNamesTheMissingCard() {
+        Random random = new Random(11);
+        int[] out = new int[SetCatalogue.SET_COUNT];
+        for (int trial = 0; trial < 50; trial++) {
+            long[] mask = randomMask(random, random.nextDouble());
+            List<Integer> expected = bruteForceSets(mask, 2);
+
+            int found = SetCatalogue.findOneShort(mask[0], mask[1], out);
+            assertEquals(expected, packed(out, found));
+
+            for (int i = 0; i < found; i++) {
+                int missing = SetCatalogue.missingCardId(out[i], mask[0], mask[1]);
+                assertTrue(!contains(mask, missing));
+                int[] ids = {SetCatalogue.cardId(out[i], 0), SetCatalogue.cardId(out[i], 1),
+                        SetCatalogue.cardId(out[i], 2)};
+                int present = 0;
+                for (int id : ids) {
+                    if (id == missing) {
+                        continue;
+                    }
+                    assertTrue(contains(mask, id));
+                    present++;
+                }
+                assertEquals(2, present);
+            }
+        }
+    }
+
+    @Test
+    public void countAchievableSets_matchesBruteForceDuringPlay() {
+        GameModel model = new GameModel(3);
+        model.startNewGame();
+        while (!model.isGameOver()) {
+            long[] mask = new long[2];
+            for (int slot = 0; slot < model.getBoard().size(); slot++) {
+                int id = model.getBoard().idAt(slot);
+                mask[id >> 6] |= 1L << id;
+            }
+            for (byte id : model.toState().remainingDeck()) {
+                mask[id >> 6] |= 1L << id;
+            }
+            assertEquals(bruteForceSets(mask, 3).size(), model.countAchievableSets());
+
+            int[] sets = model.findAllSets();
+            if (sets.length == 0) {
+                assertTrue(model.addCards());
+                continue;
+            }
+            for (int n = 0; n < 3; n++) {
+                model.selectCard(GameModel.setSlot(sets[0], n));
+            }
+            model.processSelectedSet();
+        }
+        assertArrayEquals(new int[0], model.findAllSets());
+    }
+}
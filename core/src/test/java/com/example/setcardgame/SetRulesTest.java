@@ -0,0 +1,77 @@
+package com.example.setcardgame;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SetRulesTest {
+
+    /** Reference check: each feature is all the same or all different. */
+    private static boolean isValidSetByFeatures(Card a, Card b, Card c) {
+        return sameOrDifferent(a.getColor(), b.getColor(), c.getColor())
+                && sameOrDifferent(a.getShape(), b.getShape(), c.getShape())
+                && sameOrDifferent(a.getShading(), b.getShading(), c.getShading())
+                && sameOrDifferent(a.getNumber(), b.getNumber(), c.getNumber());
+    }
+
+    private static boolean sameOrDifferent(Object a, Object b, Object c) {
+        return (a == b && b == c) || (a != b && b != c && a != c);
+    }
+
+    @Test
+    public void isValidSet_matchesFeatureRules() {
+        int sets = 0;
+        for (int i = 0; i < SetRules.CARD_COUNT; i++) {
+            for (int j = i + 1; j < SetRules.CARD_COUNT; j++) {
+                for (int k = j + 1; k < SetRules.CARD_COUNT; k++) {
+                    boolean expected = isValidSetByFeatures(Card.of(i), Card.of(j), Card.of(k));
+                    assertEquals(expected, SetRules.isValidSet(i, j, k));
+                    if (expected) {
+                        sets++;
+                    }
+                }
+            }
+        }
+        assertEquals(SetCatalogue.SET_COUNT, sets);
+    }
+
+    @Test
+    public void thirdCard_completesEveryPair() {
+        for (int i = 0; i < SetRules.CARD_COUNT; i++) {
+            for (int j = 0; j < SetRules.CARD_COUNT; j++) {
+                int third = SetRules.thirdCard(i, j);
+                if (i == j) {
+                    assertEquals(i, third);
+                } else {
+                    assertTrue(SetRules.isValidSet(i, j, third));
+                    assertFalse(third == i || third == j);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cardOf_returnsCanonicalInstances() {
+        for (int id = 0; id < SetRules.CARD_COUNT; id++) {
+            Card card = Card.of(id);
+            assertEquals(id, card.getId());
+            assertSame(card, Card.of(card.getColor(), card.getShape(), card.getShading(), card.getNumber()));
+        }
+    }
+
+    @Test
+    public void catalogue_holdsEachSetOnce() {
+        java.util.Set<Integer> seen = new java.util.HashSet<>();
+        for (int i = 0; i < SetCatalogue.SET_COUNT; i++) {
+            int a = SetCatalogue.cardId(i, 0);
+            int b = SetCatalogue.cardId(i, 1);
+            int c = SetCatalogue.cardId(i, 2);
+            assertTrue(a < b && b < c);
+            assertTrue(SetRules.isValidSet(a, b, c));
+            assertTrue(seen.add(a | (b << 8) | (c << 16)));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.setcardgame.simulator;
+
+import com.example.setcardgame.DealStrategy;
+import com.example.setcardgame.GameModel;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays whole games headlessly with an automatic set finder, spread over all cores.
+ *
+ * Games are split into fixed-size batches by a fork/join task. Every batch
+ * plays on its own GameModel seeded from the run seed and the batch index,
+ * so a run is reproducible no matter how batches land on threads.
+ */
+public class GameSimulator {
+    private static final int GAMES_PER_BATCH = 2_000;
+    private static final String USAGE = "Usage: GameSimulator [games > 0] [seed] [threads > 0] [ADD_CARDS|RESHUFFLE]";
+
+    public static void main(String[] args) {
+        long games;
+        long seed;
+        int threads;
+        DealStrategy dealStrategy;
+        try {
+            games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+            seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+            threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            dealStrategy = args.length > 3 ? DealStrategy.valueOf(args[3]) : DealStrategy.ADD_CARDS;
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        if (games <= 0 || threads <= 0) {
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        SimulationStats stats = pool.invoke(
+                new Batches(seed, dealStrategy, 0, (games + GAMES_PER_BATCH - 1) / GAMES_PER_BATCH, games));
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        System.out.println("Deal strategy: " + dealStrategy);
+        System.out.print(stats.report(elapsed, threads));
+    }
+
+    /**
+     * Splits a range of batches in half until a single batch is left, then plays it
+     */
+    private static class Batches extends RecursiveTask<SimulationStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final DealStrategy dealStrategy;
+        private final long firstBatch;
+        private final long endBatch;
+        private final long totalGames;
+
+        Batches(long seed, DealStrategy dealStrategy, long firstBatch, long endBatch, long totalGames) {
+            this.seed = seed;
+            this.dealStrategy = dealStrategy;
+            this.firstBatch = firstBatch;
+            this.endBatch = endBatch;
+            this.totalGames = totalGames;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (endBatch - firstBatch <= 1) {
+                long firstGame = firstBatch * GAMES_PER_BATCH;
+                int games = (int) Math.min(GAMES_PER_BATCH, totalGames - firstGame);
+                return playBatch(seed * 0x9E3779B97F4A7C15L + firstBatch, dealStrategy, games);
+            }
+            long middle = (firstBatch + endBatch) >>> 1;
+            Batches left = new Batches(seed, dealStrategy, firstBatch, middle, totalGames);
+            left.fork();
+            SimulationStats stats = new Batches(seed, dealStrategy, middle, endBatch, totalGames).compute();
+            stats.merge(left.join());
+            return stats;
+        }
+    }
+
+    static SimulationStats playBatch(long batchSeed, DealStrategy dealStrategy, int games) {
+        SimulationStats stats = new SimulationStats();
+        GameModel gameModel = new GameModel(batchSeed);
+        gameModel.setDealStrategy(dealStrategy);
+        for (int i = 0; i < games; i++) {
+            playGame(gameModel, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Plays one game to the end, taking the first set found and adding cards when there is none
+     */
+    static void playGame(GameModel gameModel, SimulationStats stats) {
+        gameModel.startNewGame();
+        int boardSize = gameModel.getBoard().size();
+        int peakBoardSize = boardSize;
+        stats.openingBoardSize.add(boardSize);
+        stats.recordDeal(boardSize, gameModel.countSets());
+
+        while (!gameModel.isGameOver()) {
+            List<Integer> set = gameModel.findValidSet();
+            if (set.isEmpty()) {
+                if (!gameModel.addCards()) {
+                    break;
+                }
+            } else {
+                for (int i = 0; i < set.size(); i++) {
+                    gameModel.selectCard(set.get(i));
+                }
+                gameModel.processSelectedSet();
+            }
+            boardSize = gameModel.getBoard().size();
+            peakBoardSize = Math.max(peakBoardSize, boardSize);
+            stats.recordDeal(boardSize, gameModel.countSets());
+        }
+
+        stats.peakBoardSize.add(peakBoardSize);
+        stats.setsPerGame.add(gameModel.getScore());
+        stats.cardsLeftPerGame.add(gameModel.getBoard().size());
+        stats.games++;
+    }
+}
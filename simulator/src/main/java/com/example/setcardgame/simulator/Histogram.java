@@ -0,0 +1,91 @@
+package com.example.setcardgame.simulator;
+
+import java.util.Locale;
+
+/**
+ * Counts of small non-negative integer values, mergeable across threads
+ */
+public class Histogram {
+    private final String name;
+    private final long[] counts;
+    private long total;
+    private long sum;
+
+    public Histogram(String name, int maxValue) {
+        this.name = name;
+        this.counts = new long[maxValue + 1];
+    }
+
+    /**
+     * Records one occurrence of the value; values above the maximum are counted as the maximum
+     */
+    public void add(int value) {
+        counts[Math.min(value, counts.length - 1)]++;
+        total++;
+        sum += value;
+    }
+
+    public void merge(Histogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCount(int value) {
+        return counts[value];
+    }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Returns the smallest value such that at least the given fraction of samples are at or below it
+     */
+    public int getPercentile(double fraction) {
+        long threshold = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int value = 0; value < counts.length; value++) {
+            seen += counts[value];
+            if (seen >= Math.max(threshold, 1)) {
+                return value;
+            }
+        }
+        return counts.length - 1;
+    }
+
+    public int getMax() {
+        for (int value = counts.length - 1; value >= 0; value--) {
+            if (counts[value] != 0) {
+                return value;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Appends a summary line and one bar per non-empty value
+     */
+    public void appendTo(StringBuilder out) {
+        out.append(String.format(Locale.US, "%s  (n=%d, mean=%.3f, p50=%d, p90=%d, p99=%d, max=%d)%n",
+                name, total, getMean(), getPercentile(0.5), getPercentile(0.9), getPercentile(0.99), getMax()));
+        long largest = 1;
+        for (long count : counts) {
+            largest = Math.max(largest, count);
+        }
+        for (int value = 0; value < counts.length; value++) {
+            if (counts[value] == 0) {
+                continue;
+            }
+            int bar = (int) Math.round(40.0 * counts[value] / largest);
+            out.append(String.format(Locale.US, "  %3d | %-40s %7.3f%% (%d)%n", value,
+                    "#".repeat(bar), 100.0 * counts[value] / total, counts[value]));
+        }
+    }
+}
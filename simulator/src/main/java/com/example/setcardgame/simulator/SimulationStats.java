@@ -0,0 +1,90 @@
+package com.example.setcardgame.simulator;
+
+import java.util.Locale;
+
+/**
+ * Everything measured over a batch of simulated games
+ */
+public class SimulationStats {
+    /** Boards larger than this are counted in the last bucket */
+    private static final int MAX_BOARD_SIZE = 81;
+
+    final Histogram setsPerDeal = new Histogram("Sets on the board per deal", 60);
+    final Histogram boardSizePerDeal = new Histogram("Board size per deal", MAX_BOARD_SIZE);
+    final Histogram openingBoardSize = new Histogram("Opening board size", MAX_BOARD_SIZE);
+    final Histogram peakBoardSize = new Histogram("Largest board per game", MAX_BOARD_SIZE);
+    final Histogram setsPerGame = new Histogram("Sets found per game (game length)", 27);
+    final Histogram cardsLeftPerGame = new Histogram("Cards left on the board at the end", 21);
+
+    // Deals that left exactly 12 cards on the table, and how many of those held no set
+    long twelveCardDeals;
+    long twelveCardDealsWithoutSet;
+
+    long games;
+
+    /**
+     * Records the board right after cards were dealt or replaced
+     */
+    void recordDeal(int boardSize, int setCount) {
+        setsPerDeal.add(setCount);
+        boardSizePerDeal.add(boardSize);
+        if (boardSize == 12) {
+            twelveCardDeals++;
+            if (setCount == 0) {
+                twelveCardDealsWithoutSet++;
+            }
+        }
+    }
+
+    void merge(SimulationStats other) {
+        setsPerDeal.merge(other.setsPerDeal);
+        boardSizePerDeal.merge(other.boardSizePerDeal);
+        openingBoardSize.merge(other.openingBoardSize);
+        peakBoardSize.merge(other.peakBoardSize);
+        setsPerGame.merge(other.setsPerGame);
+        cardsLeftPerGame.merge(other.cardsLeftPerGame);
+        twelveCardDeals += other.twelveCardDeals;
+        twelveCardDealsWithoutSet += other.twelveCardDealsWithoutSet;
+        games += other.games;
+    }
+
+    /**
+     * Formats the report, given the wall-clock time the batch took
+     */
+    public String report(long elapsedNanos, int threads) {
+        StringBuilder out = new StringBuilder();
+        double seconds = elapsedNanos / 1e9;
+        out.append(String.format(Locale.US, "Games: %d on %d threads in %.2f s (%.0f games/s)%n%n",
+                games, threads, seconds, games / seconds));
+
+        out.append(String.format(Locale.US, "12-card deals without a set: %.4f%% (%d of %d)%n",
+                percent(twelveCardDealsWithoutSet, twelveCardDeals), twelveCardDealsWithoutSet, twelveCardDeals));
+        out.append(String.format(Locale.US, "Opening deal grown past 12 cards: %.4f%%%n",
+                percent(openingBoardSize.getTotal() - openingBoardSize.getCount(12), openingBoardSize.getTotal())));
+        for (int size = 15; size <= 21; size += 3) {
+            long reached = 0;
+            for (int s = size; s <= MAX_BOARD_SIZE; s++) {
+                reached += peakBoardSize.getCount(s);
+            }
+            out.append(String.format(Locale.US, "Games reaching %d cards: %.4f%%%n", size, percent(reached, games)));
+        }
+        out.append('\n');
+
+        setsPerDeal.appendTo(out);
+        out.append('\n');
+        boardSizePerDeal.appendTo(out);
+        out.append('\n');
+        openingBoardSize.appendTo(out);
+        out.append('\n');
+        peakBoardSize.appendTo(out);
+        out.append('\n');
+        setsPerGame.appendTo(out);
+        out.append('\n');
+        cardsLeftPerGame.appendTo(out);
+        return out.toString();
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+}